@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing a token on login, and per-request cost of authenticating a bearer token :
+ * the former two-pass validation, with a parser built for each pass, against the single-pass parseAndValidate,
+ * for a token seen for the first time and for a token already verified
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:17:45
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "openclassrooms";
+
+    private JwtUtils jwtUtils;
+
+    private JwtUtils uncachedJwtUtils;
+
+    private String token;
+
+    private Authentication authentication;
+
+    private static JwtUtils jwtUtils(long cacheMaxSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    @Setup
+    public void setUp() {
+        jwtUtils = jwtUtils(10000);
+        uncachedJwtUtils = jwtUtils(0);
+
+        token = Jwts.builder()
+                .setSubject("yoga@studio.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("yoga@studio.com")
+                .firstName("Admin")
+                .lastName("Admin")
+                .admin(true)
+                .password("password")
+                .build();
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    /**
+     * What AuthTokenFilter used to do : validateJwtToken, then getUserNameFromJwtToken
+     */
+    @Benchmark
+    public String validateThenGetUserName() {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String parseAndValidate() {
+        Claims claims = uncachedJwtUtils.parseAndValidate(token);
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String parseAndValidateVerifiedToken() {
+        Claims claims = jwtUtils.parseAndValidate(token);
+        return claims.getSubject();
+    }
+}
@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation of a session with 100k participants, i.e. 100k inserts into PARTICIPATE,
+ * with and without jdbc batching, against an in-memory database.
+ * Gains are larger against a MySQL server, where every statement that is not batched costs a network round trip.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:23:05
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ParticipationInsertBenchmark {
+
+    private static final int PARTICIPANTS = 100000;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private SessionService sessionService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Teacher teacher;
+
+    private Set<User> participants;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:participation;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.flyway.enabled=false",
+                        "--logging.level.root=WARN");
+        sessionService = context.getBean(SessionService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        teacher = context.getBean(TeacherRepository.class).save(new Teacher().setFirstName("Margot").setLastName("DELAHAYE"));
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> users = new ArrayList<>(PARTICIPANTS);
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            users.add(new User("user" + i + "@studio.com", "User", "Test", "password", false));
+        }
+        participants = new HashSet<>(userRepository.saveAll(users));
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteSessions() {
+        jdbcTemplate.update("DELETE FROM PARTICIPATE");
+        context.getBean(SessionRepository.class).deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Session createSessionWithParticipants() {
+        return sessionService.create(new Session()
+                .setName("Onboarding")
+                .setDescription("Whole studio")
+                .setDate(new Date())
+                .setTeacher(teacher)
+                .setUsers(participants));
+    }
+}
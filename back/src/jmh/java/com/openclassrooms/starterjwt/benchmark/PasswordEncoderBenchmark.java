@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.WebSecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of hashing a password on registration and of checking it on login,
+ * with the encoders of the application, at the strength configured in application.properties
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:18:32
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "test!1234";
+
+    private PasswordEncoder passwordEncoder;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() throws IOException {
+        int bcryptStrength = Integer.parseInt(PropertiesLoaderUtils.loadAllProperties("application.properties")
+                .getProperty("oc.app.bcryptStrength"));
+        passwordEncoder = WebSecurityConfig.delegatingPasswordEncoder(bcryptStrength);
+        encodedPassword = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, encodedPassword);
+    }
+}
@@ -0,0 +1,66 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of session lists to dtos, participants already loaded
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:18:20
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SessionMapperBenchmark {
+
+    private static final int PARTICIPANTS = 10;
+
+    @Param({"10", "1000", "100000"})
+    private int sessionCount;
+
+    private SessionMapper sessionMapper;
+
+    private List<Session> sessions;
+
+    @Setup
+    public void setUp() {
+        sessionMapper = new SessionMapperImpl();
+
+        Teacher teacher = new Teacher().setId(1L).setFirstName("Margot").setLastName("DELAHAYE");
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= PARTICIPANTS; i++) {
+            users.add(new User().setId(i).setEmail("user" + i + "@studio.com"));
+        }
+
+        sessions = new ArrayList<>(sessionCount);
+        for (long i = 1; i <= sessionCount; i++) {
+            sessions.add(new Session()
+                    .setId(i)
+                    .setName("Session " + i)
+                    .setDescription("Description")
+                    .setDate(new Date())
+                    .setCapacity(20)
+                    .setTeacher(teacher)
+                    .setUsers(new HashSet<>(users)));
+        }
+    }
+
+    @Benchmark
+    public List<SessionDto> toDto() {
+        return sessionMapper.toDto(sessions);
+    }
+}
@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of session dtos, with an object mapper configured like the one of the application
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:18:41
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionSerializationBenchmark {
+
+    @Param({"1", "100"})
+    private int sessionCount;
+
+    private ObjectMapper objectMapper;
+
+    private List<SessionDto> sessionDtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        sessionDtos = new ArrayList<>(sessionCount);
+        for (long i = 1; i <= sessionCount; i++) {
+            SessionDto sessionDto = new SessionDto();
+            sessionDto.setId(i);
+            sessionDto.setName("Session " + i);
+            sessionDto.setDescription("Description");
+            sessionDto.setDate(new Date());
+            sessionDto.setTeacher_id(1L);
+            sessionDto.setCapacity(20);
+            sessionDto.setUsers(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+            sessionDto.setCreatedAt(LocalDateTime.now());
+            sessionDto.setUpdatedAt(LocalDateTime.now());
+            sessionDtos.add(sessionDto);
+        }
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(sessionDtos);
+    }
+}
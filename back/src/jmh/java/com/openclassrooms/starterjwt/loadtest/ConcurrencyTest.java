@@ -0,0 +1,261 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares the concurrent connections the application sustains with requests run on the Tomcat worker pool
+ * and on virtual threads, see VirtualThreadConfig.
+ * For each mode the application is started in process with an in-memory database whose statements are delayed
+ * like remote ones, then each concurrency level keeps that many connections busy reading the session summaries.
+ * A level is sustained when no request fails and the p99 latency stays under max-p99-ms.
+ * The defaults keep the worker pool small and the database slow, so that the worker pool runs out long before the CPU
+ * of a machine running both the clients and the application : worker threads sustain about worker-threads connections,
+ * virtual threads keep answering in about db-latency-ms until the CPU or the connection pool runs out.
+ * On virtual threads, the blocking done while pinned to a carrier thread is counted, see PinnedThreadMonitor.
+ * The virtual threads mode is skipped on runtimes older than Java 21.
+ * Options, as name=value :
+ * <ul>
+ *     <li>levels : concurrent connections, 25,50,100,200 by default</li>
+ *     <li>duration : seconds each level is measured, 10 by default</li>
+ *     <li>db-latency-ms : delay added to every statement, 500 by default</li>
+ *     <li>worker-threads : Tomcat worker threads, 25 by default</li>
+ *     <li>pool-size : database connections, 1000 by default so that the pool is not the first limit</li>
+ *     <li>max-p99-ms : p99 latency of a sustained level, twice db-latency-ms by default :
+ *     a request that has to wait for a worker thread to finish another one misses it</li>
+ *     <li>modes : platform, virtual or both by default</li>
+ *     <li>report : json report, target/concurrency-result.json by default</li>
+ * </ul>
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:21:25
+ */
+public class ConcurrencyTest {
+
+    private static final String ENDPOINT = "session/summary";
+
+    private static final String PASSWORD = "test!1234";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final RestTemplate restTemplate;
+
+    private final String baseUrl;
+
+    private String token;
+
+    private ConcurrencyTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(10_000);
+        requestFactory.setReadTimeout(30_000);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+        List<Integer> levels = new ArrayList<>();
+        for (String level : options.getOrDefault("levels", "25,50,100,200").split(",")) {
+            levels.add(Integer.parseInt(level.trim()));
+        }
+        long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "10")));
+        SimulatedLatencyInspector.latencyMs = Long.parseLong(options.getOrDefault("db-latency-ms", "500"));
+        int workerThreads = Integer.parseInt(options.getOrDefault("worker-threads", "25"));
+        int poolSize = Integer.parseInt(options.getOrDefault("pool-size", "1000"));
+        double maxP99Ms = Double.parseDouble(options.getOrDefault("max-p99-ms", String.valueOf(2 * SimulatedLatencyInspector.latencyMs)));
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "platform,virtual").split(","));
+        File report = new File(options.getOrDefault("report", "target/concurrency-result.json"));
+
+        // keeps one connection alive per concurrent client
+        System.setProperty("http.maxConnections", String.valueOf(Collections.max(levels)));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            boolean virtualThreads = "virtual".equals(mode);
+            if (virtualThreads && !virtualThreadsAvailable()) {
+                System.out.printf("Skipping virtual threads, not available on Java %s%n", System.getProperty("java.version"));
+                continue;
+            }
+
+            ConfigurableApplicationContext context = startApplication(mode, virtualThreads, poolSize, workerThreads);
+            PinnedThreadMonitor pinnedThreadMonitor = virtualThreads ? new PinnedThreadMonitor() : null;
+            try {
+                ConcurrencyTest concurrencyTest = new ConcurrencyTest("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+                concurrencyTest.login();
+
+                System.out.printf("Warming up %s threads%n", mode);
+                concurrencyTest.run(levels.get(0), TimeUnit.SECONDS.toNanos(2), new LatencyReport());
+                if (pinnedThreadMonitor != null) {
+                    // registering the user inserts it, and a new block of user ids is read under Hibernate's lock
+                    pinnedThreadMonitor.drain();
+                }
+
+                System.out.printf("%-9s %11s %9s %7s %9s %9s %10s %7s %10s%n", "threads", "connections", "requests", "errors", "p50 ms", "p99 ms", "req/s", "pinned", "sustained");
+                List<Map<String, Object>> modeLevels = new ArrayList<>();
+                int maxSustained = 0;
+                long pinned = 0;
+                for (int level : levels) {
+                    LatencyReport latencyReport = new LatencyReport();
+                    long elapsed = concurrencyTest.run(level, duration, latencyReport);
+                    Map<String, Object> line = latencyReport.summarize(Collections.singletonList(ENDPOINT), elapsed).get(0);
+                    line.remove("endpoint");
+                    line.put("concurrency", level);
+                    boolean sustained = ((Number) line.get("errors")).longValue() == 0 && ((Number) line.get("p99Ms")).doubleValue() <= maxP99Ms;
+                    line.put("sustained", sustained);
+                    if (pinnedThreadMonitor != null) {
+                        long levelPinned = pinnedThreadMonitor.drain();
+                        line.put("pinned", levelPinned);
+                        pinned += levelPinned;
+                    }
+                    if (sustained) {
+                        maxSustained = Math.max(maxSustained, level);
+                    }
+                    modeLevels.add(line);
+                    System.out.printf("%-9s %11d %9s %7s %9s %9s %10s %7s %10s%n", mode, level, line.get("requests"), line.get("errors"),
+                            line.get("p50Ms"), line.get("p99Ms"), line.get("throughputPerSecond"), line.getOrDefault("pinned", "-"), sustained ? "yes" : "no");
+                }
+                if (pinned > 0) {
+                    System.out.println("Virtual threads blocked while pinned to their carrier, JAVA_TOOL_OPTIONS=-Djdk.tracePinnedThreads=full shows where");
+                }
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("maxSustainedConcurrency", maxSustained);
+                result.put("levels", modeLevels);
+                results.put(mode, result);
+                System.out.printf("%s threads sustain %d concurrent connections%n", mode, maxSustained);
+            } finally {
+                if (pinnedThreadMonitor != null) {
+                    pinnedThreadMonitor.close();
+                }
+                context.close();
+            }
+        }
+
+        if (report.getParentFile() != null) {
+            report.getParentFile().mkdirs();
+        }
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("durationSeconds", TimeUnit.NANOSECONDS.toSeconds(duration));
+        settings.put("dbLatencyMs", SimulatedLatencyInspector.latencyMs);
+        settings.put("workerThreads", workerThreads);
+        settings.put("poolSize", poolSize);
+        settings.put("maxP99Ms", maxP99Ms);
+        settings.put("javaVersion", System.getProperty("java.version"));
+        results.put("settings", settings);
+        Jackson2ObjectMapperBuilder.json().build().writerWithDefaultPrettyPrinter().writeValue(report, results);
+        System.out.println("Report written to " + report.getPath());
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(String mode, boolean virtualThreads, int poolSize, int workerThreads) {
+        // passed as command line arguments to override application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:concurrency-" + mode + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        // replaced by the virtual threads executor in that mode
+                        "--server.tomcat.threads.max=" + workerThreads,
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + SimulatedLatencyInspector.class.getName(),
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.flyway.enabled=false",
+                        "--oc.app.virtualThreads=" + virtualThreads,
+                        "--logging.level.root=WARN");
+        Teacher teacher = context.getBean(TeacherRepository.class).save(new Teacher().setFirstName("Margot").setLastName("DELAHAYE"));
+        SessionService sessionService = context.getBean(SessionService.class);
+        for (int i = 0; i < 20; i++) {
+            sessionService.create(new Session()
+                    .setName("Session " + i)
+                    .setDescription("Description")
+                    .setDate(new Date())
+                    .setTeacher(teacher)
+                    .setUsers(new HashSet<>()));
+        }
+        return context;
+    }
+
+    private void login() throws Exception {
+        Map<String, Object> credentials = new HashMap<>();
+        credentials.put("email", "concurrency@test.com");
+        credentials.put("password", PASSWORD);
+        credentials.put("firstName", "Concurrency");
+        credentials.put("lastName", "Test");
+        restTemplate.postForEntity(baseUrl + "/api/auth/register", credentials, String.class);
+        String login = restTemplate.postForEntity(baseUrl + "/api/auth/login", credentials, String.class).getBody();
+        JsonNode response = objectMapper.readTree(login);
+        this.token = response.path("token").asText();
+    }
+
+    /**
+     * Keeps the given number of connections busy, each one sending its next request as soon as the previous one is answered
+     * @return wall time of the run, in nanoseconds
+     */
+    private long run(int concurrency, long durationNanos, LatencyReport latencyReport) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            long[] deadline = new long[1];
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        long begin = System.nanoTime();
+                        boolean success;
+                        try {
+                            success = restTemplate.exchange(baseUrl + "/api/session/summary", HttpMethod.GET, request, String.class)
+                                    .getStatusCode().is2xxSuccessful();
+                        } catch (RuntimeException e) {
+                            success = false;
+                        }
+                        latencyReport.record(ENDPOINT, System.nanoTime() - begin, success);
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            deadline[0] = begin + durationNanos;
+            start.countDown();
+            for (Future<?> client : clients) {
+                client.get();
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and errors recorded by endpoint, from any number of threads
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:19:20
+ */
+public class LatencyReport {
+
+    private final Map<String, Queue<Long>> latencies = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos, boolean success) {
+        latencies.computeIfAbsent(endpoint, k -> new ConcurrentLinkedQueue<>()).add(nanos);
+        AtomicLong endpointErrors = errors.computeIfAbsent(endpoint, k -> new AtomicLong());
+        if (!success) {
+            endpointErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param elapsedNanos wall time of the whole run, throughput is computed against it
+     * @return one line per endpoint, in the order endpoints were first hit, then the total
+     */
+    public List<Map<String, Object>> summarize(List<String> endpoints, long elapsedNanos) {
+        List<Map<String, Object>> summary = new ArrayList<>();
+        List<Long> all = new ArrayList<>();
+        long allErrors = 0;
+        for (String endpoint : endpoints) {
+            List<Long> endpointLatencies = new ArrayList<>(latencies.getOrDefault(endpoint, new LinkedList<>()));
+            long endpointErrors = errors.getOrDefault(endpoint, new AtomicLong()).get();
+            all.addAll(endpointLatencies);
+            allErrors += endpointErrors;
+            summary.add(line(endpoint, endpointLatencies, endpointErrors, elapsedNanos));
+        }
+        summary.add(line("total", all, allErrors, elapsedNanos));
+        return summary;
+    }
+
+    private static Map<String, Object> line(String endpoint, List<Long> latencies, long errors, long elapsedNanos) {
+        Collections.sort(latencies);
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("endpoint", endpoint);
+        line.put("requests", latencies.size());
+        line.put("errors", errors);
+        line.put("p50Ms", millis(percentile(latencies, 50)));
+        line.put("p95Ms", millis(percentile(latencies, 95)));
+        line.put("p99Ms", millis(percentile(latencies, 99)));
+        line.put("maxMs", millis(latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1)));
+        line.put("throughputPerSecond", Math.round(latencies.size() * 10.0 * TimeUnit.SECONDS.toNanos(1) / elapsedNanos) / 10.0);
+        return line;
+    }
+
+    // nearest-rank percentile of sorted values
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
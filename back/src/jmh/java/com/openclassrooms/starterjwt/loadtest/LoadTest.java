@@ -0,0 +1,271 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.loadtest.PostmanCollection.PostmanRequest;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays the user flows of the Postman collection with concurrent virtual users,
+ * and reports latency percentiles and throughput by endpoint.
+ * Unless a base url is given, the application is started in process on a random port, with an in-memory database.
+ * Options, as name=value :
+ * <ul>
+ *     <li>users : concurrent virtual users, 20 by default</li>
+ *     <li>iterations : flows replayed by each user, 20 by default</li>
+ *     <li>warmup : flows replayed by each user before measuring, 2 by default</li>
+ *     <li>base-url : url of an already started application</li>
+ *     <li>collection : Postman collection, ../ressources/postman/yoga.postman_collection.json by default</li>
+ *     <li>report : json report, target/loadtest-result.json by default</li>
+ * </ul>
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:19:35
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "test!1234";
+
+    // requests of the collection, in the order of a user flow
+    private static final List<String> FLOW = Arrays.asList(
+            "auth/register",
+            "auth/login",
+            "teacher/find all",
+            "teacher/find by id",
+            "session/find all",
+            "session/create",
+            "session/find by id",
+            "session/update",
+            "session/participe",
+            "session/no longer participe",
+            "session/delete",
+            "user/find by id",
+            "user/delete"
+    );
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private final AtomicInteger userSequence = new AtomicInteger();
+
+    // keeps emails unique across runs against the same application
+    private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+
+    private final PostmanCollection collection;
+
+    private final String baseUrl;
+
+    private LoadTest(PostmanCollection collection, String baseUrl) {
+        this.collection = collection;
+        this.baseUrl = baseUrl;
+        // statuses are recorded, never thrown
+        this.restTemplate.setErrorHandler(new ResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+
+            @Override
+            public void handleError(ClientHttpResponse response) {
+            }
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+        int users = Integer.parseInt(options.getOrDefault("users", "20"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "2"));
+        File report = new File(options.getOrDefault("report", "target/loadtest-result.json"));
+
+        // keeps one connection alive per virtual user
+        System.setProperty("http.maxConnections", String.valueOf(users));
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            context = startApplication();
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            PostmanCollection collection = new PostmanCollection(
+                    new File(options.getOrDefault("collection", "../ressources/postman/yoga.postman_collection.json")), objectMapper);
+            LoadTest loadTest = new LoadTest(collection, baseUrl);
+
+            System.out.printf("Warming up %s with %d users x %d flows%n", baseUrl, users, warmup);
+            loadTest.run(users, warmup, new LatencyReport());
+
+            System.out.printf("Measuring %s with %d users x %d flows%n", baseUrl, users, iterations);
+            LatencyReport latencyReport = new LatencyReport();
+            long elapsed = loadTest.run(users, iterations, latencyReport);
+
+            List<Map<String, Object>> summary = latencyReport.summarize(FLOW, elapsed);
+            print(summary);
+            if (report.getParentFile() != null) {
+                report.getParentFile().mkdirs();
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(report, summary);
+            System.out.println("Report written to " + report.getPath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication() {
+        // passed as command line arguments to override application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.flyway.enabled=false",
+                        "--logging.level.root=WARN");
+        TeacherRepository teacherRepository = context.getBean(TeacherRepository.class);
+        teacherRepository.save(new Teacher().setFirstName("Margot").setLastName("DELAHAYE"));
+        teacherRepository.save(new Teacher().setFirstName("Hélène").setLastName("THIERCELIN"));
+        return context;
+    }
+
+    /**
+     * @return wall time of the run, in nanoseconds
+     */
+    private long run(int users, int iterations, LatencyReport latencyReport) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> virtualUsers = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                virtualUsers.add(executor.submit(() -> {
+                    start.await();
+                    for (int iteration = 0; iteration < iterations; iteration++) {
+                        replayFlow(latencyReport);
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> virtualUser : virtualUsers) {
+                virtualUser.get();
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Chains the requests of the collection the way its test scripts do, passing ids and token along
+     */
+    private void replayFlow(LatencyReport latencyReport) {
+        Map<String, String> variables = new HashMap<>();
+        String email = "lt" + runId + "-" + userSequence.incrementAndGet() + "@test.com";
+        Map<String, Object> credentials = new HashMap<>();
+        credentials.put("email", email);
+        credentials.put("password", PASSWORD);
+
+        send("auth/register", variables, credentials, latencyReport);
+        JsonNode login = send("auth/login", variables, credentials, latencyReport);
+        if (login == null) {
+            return;
+        }
+        variables.put("authToken", login.path("token").asText());
+        variables.put("userId", login.path("id").asText());
+
+        JsonNode teachers = send("teacher/find all", variables, Collections.emptyMap(), latencyReport);
+        String teacherId = teachers != null && teachers.size() > 0 ? teachers.get(0).path("id").asText() : "1";
+        send("teacher/find by id", withId(variables, teacherId), Collections.emptyMap(), latencyReport);
+
+        send("session/find all", variables, Collections.emptyMap(), latencyReport);
+        Map<String, Object> session = new HashMap<>();
+        session.put("teacher_id", Long.valueOf(teacherId));
+        session.put("users", Collections.emptyList());
+        JsonNode created = send("session/create", variables, session, latencyReport);
+        if (created == null) {
+            return;
+        }
+        variables.put("sessionId", created.path("id").asText());
+        send("session/find by id", withId(variables, variables.get("sessionId")), Collections.emptyMap(), latencyReport);
+        send("session/update", variables, session, latencyReport);
+        send("session/participe", variables, Collections.emptyMap(), latencyReport);
+        send("session/no longer participe", variables, Collections.emptyMap(), latencyReport);
+        send("session/delete", variables, Collections.emptyMap(), latencyReport);
+
+        send("user/find by id", variables, Collections.emptyMap(), latencyReport);
+        send("user/delete", variables, Collections.emptyMap(), latencyReport);
+    }
+
+    private static Map<String, String> withId(Map<String, String> variables, String id) {
+        Map<String, String> withId = new HashMap<>(variables);
+        withId.put("id", id);
+        return withId;
+    }
+
+    /**
+     * @return the json response body, or null if the request failed
+     */
+    private JsonNode send(String name, Map<String, String> variables, Map<String, Object> bodyFields, LatencyReport latencyReport) {
+        PostmanRequest request = collection.get(name);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (variables.containsKey("authToken")) {
+            headers.setBearerAuth(variables.get("authToken"));
+        }
+        JsonNode body = request.body(bodyFields, objectMapper);
+
+        long begin = System.nanoTime();
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.exchange(baseUrl + request.path(variables), request.getMethod(), new HttpEntity<>(body, headers), String.class);
+        } catch (RuntimeException e) {
+            latencyReport.record(name, System.nanoTime() - begin, false);
+            return null;
+        }
+        boolean success = response.getStatusCode().is2xxSuccessful();
+        latencyReport.record(name, System.nanoTime() - begin, success);
+
+        if (!success) {
+            return null;
+        }
+        try {
+            return response.getBody() != null ? objectMapper.readTree(response.getBody()) : objectMapper.createObjectNode();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void print(List<Map<String, Object>> summary) {
+        System.out.printf("%-30s %9s %7s %9s %9s %9s %9s %10s%n", "endpoint", "requests", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "req/s");
+        for (Map<String, Object> line : summary) {
+            System.out.printf("%-30s %9s %7s %9s %9s %9s %9s %10s%n", line.get("endpoint"), line.get("requests"), line.get("errors"),
+                    line.get("p50Ms"), line.get("p95Ms"), line.get("p99Ms"), line.get("maxMs"), line.get("throughputPerSecond"));
+        }
+    }
+}
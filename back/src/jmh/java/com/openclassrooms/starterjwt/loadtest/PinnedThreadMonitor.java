@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the virtual threads blocked while pinned to their carrier, i.e. sleeping or waiting inside a synchronized block :
+ * such a request holds its carrier thread the way it would hold a worker thread, and the carriers are as many as the cores.
+ * Listens to the jdk.VirtualThreadPinned event of Java 21 in the running JVM ; -Djdk.tracePinnedThreads=full prints where they block.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:23:40
+ */
+class PinnedThreadMonitor implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream recordingStream = new RecordingStream();
+
+    private final AtomicLong pinned = new AtomicLong();
+
+    private volatile CountDownLatch flushes = new CountDownLatch(0);
+
+    PinnedThreadMonitor() {
+        recordingStream.enable(PINNED_EVENT).withThreshold(Duration.ZERO);
+        recordingStream.onEvent(PINNED_EVENT, event -> pinned.incrementAndGet());
+        recordingStream.onFlush(() -> flushes.countDown());
+        recordingStream.startAsync();
+    }
+
+    /**
+     * Events reach the stream when the recording is flushed, about every second :
+     * waits for two flushes so that everything recorded before the call is counted
+     * @return pinned blocking since the previous call
+     */
+    long drain() throws InterruptedException {
+        CountDownLatch next = new CountDownLatch(2);
+        flushes = next;
+        next.await(5, TimeUnit.SECONDS);
+        return pinned.getAndSet(0);
+    }
+
+    @Override
+    public void close() {
+        recordingStream.close();
+    }
+}
@@ -0,0 +1,112 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.http.HttpMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Requests of a Postman collection, by "folder/name", e.g. "session/create"
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:19:05
+ */
+public class PostmanCollection {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{\\{(\\w+)}}");
+
+    private final Map<String, PostmanRequest> requests = new LinkedHashMap<>();
+
+    public PostmanCollection(File file, ObjectMapper objectMapper) throws IOException {
+        JsonNode collection = objectMapper.readTree(file);
+        for (JsonNode folder : collection.path("item")) {
+            for (JsonNode item : folder.path("item")) {
+                String name = folder.path("name").asText() + "/" + item.path("name").asText();
+                requests.put(name, new PostmanRequest(name, item.path("request"), objectMapper));
+            }
+        }
+    }
+
+    public PostmanRequest get(String name) {
+        PostmanRequest request = requests.get(name);
+        if (request == null) {
+            throw new IllegalArgumentException("No request named " + name + " in collection, available : " + requests.keySet());
+        }
+        return request;
+    }
+
+    private static String substitute(String template, Map<String, String> variables) {
+        Matcher matcher = VARIABLE.matcher(template);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(result, Matcher.quoteReplacement(variables.getOrDefault(matcher.group(1), "")));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    public static class PostmanRequest {
+        private final String name;
+
+        private final HttpMethod method;
+
+        private final List<String> path = new ArrayList<>();
+
+        private final Map<String, String> pathVariables = new HashMap<>();
+
+        private final JsonNode body;
+
+        private PostmanRequest(String name, JsonNode request, ObjectMapper objectMapper) throws IOException {
+            this.name = name;
+            this.method = HttpMethod.valueOf(request.path("method").asText());
+            request.path("url").path("path").forEach(segment -> path.add(segment.asText()));
+            request.path("url").path("variable").forEach(variable -> pathVariables.put(variable.path("key").asText(), variable.path("value").asText()));
+            String raw = request.path("body").path("raw").asText(null);
+            this.body = raw != null && !raw.trim().isEmpty() ? objectMapper.readTree(raw) : null;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        /**
+         * @param variables collection variables, e.g. sessionId, and path variables overriding the ones of the collection, e.g. id
+         */
+        public String path(Map<String, String> variables) {
+            StringBuilder resolved = new StringBuilder();
+            for (String segment : path) {
+                resolved.append('/');
+                if (segment.startsWith(":")) {
+                    String key = segment.substring(1);
+                    resolved.append(variables.containsKey(key) ? variables.get(key) : substitute(pathVariables.getOrDefault(key, ""), variables));
+                } else {
+                    resolved.append(substitute(segment, variables));
+                }
+            }
+            return resolved.toString();
+        }
+
+        /**
+         * @return the body of the collection, with the given fields replaced, or null if the request has no body
+         */
+        public JsonNode body(Map<String, Object> fields, ObjectMapper objectMapper) {
+            if (body == null) {
+                return null;
+            }
+            ObjectNode resolved = body.deepCopy();
+            fields.forEach((field, value) -> resolved.set(field, objectMapper.valueToTree(value)));
+            return resolved;
+        }
+    }
+}
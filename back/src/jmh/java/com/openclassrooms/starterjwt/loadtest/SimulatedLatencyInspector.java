@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Delays every statement on the thread sending it, as the round trip to a remote database would,
+ * so that requests against the in-memory database spend most of their time blocked.
+ * The delay runs while a pooled connection is held, but no monitor : a virtual thread sleeping here unmounts from its carrier,
+ * unless a caller synchronizes, which the concurrency test reports, see PinnedThreadMonitor.
+ * Instantiated by Hibernate from its class name, hence the static latency.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:21:20
+ */
+public class SimulatedLatencyInspector implements StatementInspector {
+
+    static volatile long latencyMs;
+
+    @Override
+    public String inspect(String sql) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sql;
+    }
+}
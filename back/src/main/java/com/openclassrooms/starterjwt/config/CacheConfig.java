@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory caches, each one bounded in size and time
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Authenticated principals by username, so that a valid token does not cost a database round trip
+     */
+    public static final String PRINCIPALS = "principals";
+
+    /**
+     * Teachers by id plus the whole list under ALL_TEACHERS, cleared on every teacher write, see TeacherCacheEvictionListener
+     */
+    public static final String TEACHERS = "teachers";
+
+    public static final String ALL_TEACHERS = "all";
+
+    @Value("${oc.app.principalCacheTtlSeconds}")
+    private long principalCacheTtlSeconds;
+
+    @Value("${oc.app.principalCacheMaxSize}")
+    private long principalCacheMaxSize;
+
+    @Value("${oc.app.teacherCacheTtlSeconds}")
+    private long teacherCacheTtlSeconds;
+
+    @Value("${oc.app.teacherCacheMaxSize}")
+    private long teacherCacheMaxSize;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PRINCIPALS, Caffeine.newBuilder()
+                .expireAfterWrite(principalCacheTtlSeconds, TimeUnit.SECONDS)
+                .maximumSize(principalCacheMaxSize)
+                .build());
+        cacheManager.registerCustomCache(TEACHERS, Caffeine.newBuilder()
+                .expireAfterWrite(teacherCacheTtlSeconds, TimeUnit.SECONDS)
+                .maximumSize(teacherCacheMaxSize)
+                .build());
+        return cacheManager;
+    }
+}
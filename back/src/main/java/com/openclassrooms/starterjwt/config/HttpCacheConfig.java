@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Conditional requests on rarely changing resources : an ETag is computed from the response body,
+ * and a matching If-None-Match gets a 304 without the body
+ */
+@Configuration
+public class HttpCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/teacher", "/api/teacher/*");
+        registration.setName("etagFilter");
+        return registration;
+    }
+}
@@ -0,0 +1,27 @@
+package com.openclassrooms.starterjwt.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Scheduler of the streamed reads, see ReactiveReadService.
+ * Repository calls still block, so they get their own threads, no more than the connections that can serve them,
+ * and a bounded queue : waiting reads hold neither a request thread nor a connection.
+ */
+@Configuration
+public class ReactiveReadConfig {
+
+    @Value("${oc.app.reactiveReadThreads}")
+    private int reactiveReadThreads;
+
+    @Value("${oc.app.reactiveReadQueueCapacity}")
+    private int reactiveReadQueueCapacity;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler readScheduler() {
+        return Schedulers.newBoundedElastic(reactiveReadThreads, reactiveReadQueueCapacity, "reactive-read");
+    }
+}
@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.config;
+
+import com.openclassrooms.starterjwt.models.Teacher;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.Optional;
+
+/**
+ * Clears the teachers cache whenever a teacher is written, whatever the code path doing the write
+ */
+@Component
+public class TeacherCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    public TeacherCacheEvictionListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(Teacher teacher) {
+        clear();
+        // a concurrent read may cache the previous state again until the write is committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        Optional.ofNullable(this.cacheManager.getCache(CacheConfig.TEACHERS)).ifPresent(Cache::clear);
+    }
+}
@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Experimental : runs every request on its own virtual thread instead of the bounded Tomcat worker pool, when oc.app.virtualThreads is set.
+ * Repositories are called on the request thread, so a request waiting for the database in SessionService or UserService
+ * only parks a virtual thread, as long as nothing on the way holds a monitor : see the Tomcat and Connector/J versions in the pom,
+ * and the concurrency test, which reports pinned threads. Database work stays bounded by the connection pool,
+ * and password hashing keeps its own platform threads, see BoundedPasswordEncoder.
+ * Virtual threads need a Java 21 runtime : the application still builds for older ones, and refuses to start
+ * with this option on them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "oc.app.virtualThreads", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ExecutorService executor;
+
+    public VirtualThreadConfig() {
+        this(newVirtualThreadPerTaskExecutor());
+    }
+
+    VirtualThreadConfig(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    // looked up at runtime, the sources being compiled for Java 8
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("oc.app.virtualThreads requires Java 21 or later, running on " + System.getProperty("java.version"));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // streamed responses, e.g. session exports or user imports, are written from the async executor
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(executor));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
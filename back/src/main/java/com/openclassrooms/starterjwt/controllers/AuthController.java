@@ -1,7 +1,11 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import java.util.Locale;
+
 import javax.validation.Valid;
 
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -50,30 +54,19 @@ public class AuthController {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
+        // the principal already carries everything the response needs, see UserDetailsServiceImpl.loadUserByUsername
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        boolean isAdmin = false;
-        User user = this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
-        if (user != null) {
-            isAdmin = user.isAdmin();
-        }
-
         return ResponseEntity.ok(new JwtResponse(jwt,
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getFirstName(),
                 userDetails.getLastName(),
-                isAdmin));
+                Boolean.TRUE.equals(userDetails.getAdmin())));
     }
 
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity
-                    .badRequest()
-                    .body(new MessageResponse("Error: Email is already taken!"));
-        }
-
         // Create new user's account
         User user = new User(signUpRequest.getEmail(),
                 signUpRequest.getLastName(),
@@ -81,8 +74,27 @@ public class AuthController {
                 passwordEncoder.encode(signUpRequest.getPassword()),
                 false);
 
-        userRepository.save(user);
+        // no prior lookup : the unique constraint on USERS.email refuses a taken email, even between concurrent sign-ups
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailTaken(e)) {
+                throw e;
+            }
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Email is already taken!"));
+        }
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    /**
+     * Only the unique constraint on the email means that the email is taken, any other violation is a genuine error.
+     * The constraint name is read from the database message, where both MySQL and H2 include it.
+     */
+    private static boolean isEmailTaken(DataIntegrityViolationException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.toUpperCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT);
+    }
 }
@@ -2,72 +2,254 @@ package com.openclassrooms.starterjwt.controllers;
 
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.StaleSessionException;
+import com.openclassrooms.starterjwt.exception.UnknownUserException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import com.openclassrooms.starterjwt.repository.SessionStamp;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    private static final Pattern VERSION_ETAG = Pattern.compile("\"(\\d+)\"");
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final ObjectMapper objectMapper;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             ObjectMapper objectMapper) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Conditional on the session version : a matching If-None-Match, or If-Modified-Since when no If-None-Match is sent,
+     * gets a 304 before the session is even loaded
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
         try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+            Long sessionId = Long.valueOf(id);
+            SessionStamp stamp = this.sessionService.getStamp(sessionId);
+
+            if (stamp.getCount() == 0) {
+                return ResponseEntity.notFound().build();
+            }
+
+            long lastModified = lastModified(stamp);
+            String etag = versionEtag(stamp.getVersion());
+            if (request.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+
+            Session session = this.sessionService.getById(sessionId);
 
             if (session == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return validated(etag, lastModified).body(this.sessionMapper.toDto(session));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Conditional on the stamp of the sessions, see SessionStamp, so that an unchanged listing costs a single aggregate query.
+     * Last-Modified is only a fallback for clients that send no If-None-Match, it may miss changes made within the same second.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
+    public ResponseEntity<?> findAll(WebRequest request) {
+        SessionStamp stamp = this.sessionService.getStamp();
+        long lastModified = lastModified(stamp);
+        String etag = etag(stamp);
+        if (request.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+
         List<Session> sessions = this.sessionService.findAll();
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+        return validated(etag, lastModified).body(this.sessionMapper.toDto(sessions));
+    }
+
+    private static long lastModified(SessionStamp stamp) {
+        return stamp.getLastModified() != null ? stamp.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    /**
+     * Weak validator : it follows the stored state, not the exact bytes of the serialized representation
+     */
+    private static String etag(SessionStamp stamp) {
+        return "W/\"" + stamp.getCount() + "-" + stamp.getLastId() + "-" + stamp.getVersion() + "\"";
+    }
+
+    /**
+     * Strong validator of one session, so that it can be sent back in If-Match
+     */
+    private static String versionEtag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static ResponseEntity.BodyBuilder validated(String etag, long lastModified) {
+        // browsers keep the response but always revalidate it
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).eTag(etag);
+        return lastModified >= 0 ? builder.lastModified(lastModified) : builder;
+    }
+
+    /**
+     * Listing for list screens : participant counts instead of participant ids
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> findAllSummaries() {
+        return ResponseEntity.ok().body(this.sessionMapper.toSummaryDto(this.sessionService.findAllSummaries()));
+    }
+
+    /**
+     * Export of all sessions for reporting, one json session per line, written while the sessions are read
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        ObjectWriter sessionWriter = this.objectMapper.writerFor(SessionDto.class);
+
+        StreamingResponseBody body = out -> this.sessionService.streamAll(session -> {
+            try {
+                out.write(sessionWriter.writeValueAsBytes(this.sessionMapper.toDto(session)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Paged mode of the session listing, selected by the size parameter.
+     * The cursor returned as nextCursor must be sent back as is to get the following page.
+     */
+    @GetMapping(params = "size")
+    public ResponseEntity<?> findPage(@RequestParam("size") int size,
+                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "teacherId", required = false) Long teacherId,
+                                      @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                      @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
+        return SessionPages.page(size, cursor, (after, limit) -> this.sessionService.findPage(after, teacherId, from, to, limit), this.sessionMapper);
     }
 
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
         log.info(sessionDto);
 
-        Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
+        try {
+            Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
 
-        log.info(session);
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            log.info(session);
+            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+        } catch (UnknownUserException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
 
+    /**
+     * Full overwrite of the session, conditional on the version it was read at when one is given :
+     * either as the ETag in If-Match, answered with 412 when stale, or as the version of the body, answered with 409
+     */
     @PutMapping("{id}")
-    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
+    public ResponseEntity<?> update(@PathVariable("id") String id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    @Valid @RequestBody SessionDto sessionDto) {
         try {
-            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
+            Long expectedVersion = ifMatch != null ? ifMatchVersion(ifMatch) : sessionDto.getVersion();
+            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto), expectedVersion);
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return ResponseEntity.ok().eTag(versionEtag(session.getVersion())).body(this.sessionMapper.toDto(session));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
+        } catch (UnknownUserException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        } catch (StaleSessionException e) {
+            if (ifMatch != null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * JSON merge patch of the session : only the given fields are changed, participants are left untouched.
+     * Conditional on the version the same way as the full update.
+     */
+    @PatchMapping(value = "{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@PathVariable("id") String id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                   @RequestBody JsonNode patch) {
+        try {
+            if (!patch.isObject()) {
+                return ResponseEntity.badRequest().build();
+            }
+            Set<String> fields = new HashSet<>();
+            patch.fieldNames().forEachRemaining(fields::add);
+            SessionDto values = this.objectMapper.treeToValue(patch, SessionDto.class);
+
+            Long expectedVersion = ifMatch != null ? ifMatchVersion(ifMatch) : values.getVersion();
+            Session session = this.sessionService.patch(Long.parseLong(id), s -> this.sessionMapper.patch(s, values, fields), expectedVersion);
+
+            return ResponseEntity.ok().eTag(versionEtag(session.getVersion())).body(this.sessionMapper.toDto(session));
+        } catch (NumberFormatException | JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (StaleSessionException e) {
+            if (ifMatch != null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Version named by an If-Match header, null for any version ;
+     * weak or foreign validators never match a session version, so they are given an impossible one
+     */
+    private static Long ifMatchVersion(String ifMatch) {
+        if ("*".equals(ifMatch.trim())) {
+            return null;
         }
+        Matcher versionMatcher = VERSION_ETAG.matcher(ifMatch.trim());
+        return versionMatcher.matches() ? Long.valueOf(versionMatcher.group(1)) : -1L;
     }
 
     @DeleteMapping("{id}")
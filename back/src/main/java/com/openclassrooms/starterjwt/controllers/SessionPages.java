@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.SessionPageDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.services.SessionCursor;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Keyset paging shared by the session listings : the size is checked, the cursor decoded,
+ * and the cursor of the next page is taken from the last session of the page
+ */
+final class SessionPages {
+    static final int MAX_PAGE_SIZE = 100;
+
+    private SessionPages() {
+    }
+
+    /**
+     * @param finder loads at most the given number of sessions, starting right after the given cursor, null for the first page
+     * @return 400 if the size is out of bounds, the page otherwise
+     * @throws com.openclassrooms.starterjwt.exception.BadRequestException if the cursor cannot be decoded
+     */
+    static ResponseEntity<?> page(int size, String cursor, BiFunction<SessionCursor, Integer, List<Session>> finder, SessionMapper sessionMapper) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        SessionCursor after = cursor != null ? SessionCursor.decode(cursor) : null;
+        // fetch one extra row to know whether another page exists
+        List<Session> sessions = finder.apply(after, size + 1);
+
+        String nextCursor = null;
+        if (sessions.size() > size) {
+            sessions = sessions.subList(0, size);
+            nextCursor = SessionCursor.of(sessions.get(size - 1)).encode();
+        }
+
+        return ResponseEntity.ok().body(new SessionPageDto(sessionMapper.toDto(sessions), nextCursor));
+    }
+}
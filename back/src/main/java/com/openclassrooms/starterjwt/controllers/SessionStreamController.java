@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.services.ReactiveReadService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Date;
+
+/**
+ * Streamed session listing for polling clients, e.g. kiosk displays : the request thread is released
+ * as soon as the stream starts, sessions are read and written page by page as the client consumes them
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/session")
+public class SessionStreamController {
+    private final ReactiveReadService reactiveReadService;
+    private final SessionMapper sessionMapper;
+
+    @Value("${oc.app.sessionStreamPageSize}")
+    private int sessionStreamPageSize;
+
+
+    public SessionStreamController(ReactiveReadService reactiveReadService,
+                                   SessionMapper sessionMapper) {
+        this.reactiveReadService = reactiveReadService;
+        this.sessionMapper = sessionMapper;
+    }
+
+    /**
+     * Same sessions as the paged listing, one json session per line, or one server-sent event per session
+     */
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SessionDto> stream(@RequestParam(value = "teacherId", required = false) Long teacherId,
+                                   @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                   @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
+        return this.reactiveReadService.findSessionPages(teacherId, from, to, sessionStreamPageSize)
+                // mapped on the read scheduler, participant ids being loaded by page
+                .map(this.sessionMapper::toDto)
+                .flatMapIterable(sessionDtos -> sessionDtos, 1);
+    }
+}
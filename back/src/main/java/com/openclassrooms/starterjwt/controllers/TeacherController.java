@@ -3,9 +3,12 @@ package com.openclassrooms.starterjwt.controllers;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.services.TeacherService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -14,6 +17,9 @@ public class TeacherController {
     private final TeacherMapper teacherMapper;
     private final TeacherService teacherService;
 
+    @Value("${oc.app.teacherHttpMaxAgeSeconds}")
+    private long teacherHttpMaxAgeSeconds;
+
 
     public TeacherController(TeacherService teacherService,
                              TeacherMapper teacherMapper) {
@@ -30,7 +36,7 @@ public class TeacherController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.teacherMapper.toDto(teacher));
+            return ResponseEntity.ok().cacheControl(cacheControl()).body(this.teacherMapper.toDto(teacher));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -40,6 +46,14 @@ public class TeacherController {
     public ResponseEntity<?> findAll() {
         List<Teacher> teachers = this.teacherService.findAll();
 
-        return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
+        return ResponseEntity.ok().cacheControl(cacheControl()).body(this.teacherMapper.toDto(teachers));
+    }
+
+    /**
+     * Teachers may be kept by browsers for a while, then revalidated through the ETag.
+     * Private since the api is only served to authenticated users.
+     */
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(teacherHttpMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate();
     }
 }
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.mapper.TeacherMapper;
+import com.openclassrooms.starterjwt.services.ReactiveReadService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streamed teacher listing for polling clients, see SessionStreamController
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/teacher")
+public class TeacherStreamController {
+    private final ReactiveReadService reactiveReadService;
+    private final TeacherMapper teacherMapper;
+
+
+    public TeacherStreamController(ReactiveReadService reactiveReadService,
+                                   TeacherMapper teacherMapper) {
+        this.reactiveReadService = reactiveReadService;
+        this.teacherMapper = teacherMapper;
+    }
+
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<TeacherDto> stream() {
+        return this.reactiveReadService.findAllTeachers()
+                .flatMapIterable(this.teacherMapper::toDto);
+    }
+}
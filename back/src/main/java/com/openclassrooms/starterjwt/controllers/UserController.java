@@ -1,15 +1,29 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.UserImportResult;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.UserImportService;
 import com.openclassrooms.starterjwt.services.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -17,12 +31,54 @@ import java.util.Objects;
 public class UserController {
     private final UserMapper userMapper;
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+    private final SessionService sessionService;
+    private final SessionMapper sessionMapper;
 
 
     public UserController(UserService userService,
-                             UserMapper userMapper) {
+                             UserMapper userMapper,
+                             UserImportService userImportService,
+                             ObjectMapper objectMapper,
+                             SessionService sessionService,
+                             SessionMapper sessionMapper) {
         this.userMapper = userMapper;
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+        this.sessionService = sessionService;
+        this.sessionMapper = sessionMapper;
+    }
+
+    /**
+     * Creates users from a json array or a csv file of sign-up records, see UserImportService.
+     * Records are read while the results are written, one json object per line
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, HttpServletRequest request) {
+        boolean csv = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        ObjectWriter resultWriter = this.objectMapper.writerFor(UserImportResult.class);
+
+        StreamingResponseBody body = out -> {
+            Consumer<UserImportResult> results = result -> {
+                try {
+                    out.write(resultWriter.writeValueAsBytes(result));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            if (csv) {
+                this.userImportService.importCsv(request.getInputStream(), results);
+            }
+            else {
+                this.userImportService.importJson(request.getInputStream(), results);
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -40,6 +96,22 @@ public class UserController {
         }
     }
 
+    /**
+     * Sessions the user participates in, upcoming ones by default or past ones, paged like the session listing
+     */
+    @GetMapping("/{id}/sessions")
+    public ResponseEntity<?> findSessions(@PathVariable("id") String id,
+                                          @RequestParam(value = "past", defaultValue = "false") boolean past,
+                                          @RequestParam(value = "size", defaultValue = "20") int size,
+                                          @RequestParam(value = "cursor", required = false) String cursor) {
+        try {
+            Long userId = Long.valueOf(id);
+            return SessionPages.page(size, cursor, (after, limit) -> this.sessionService.findParticipantPage(userId, past, after, limit), this.sessionMapper);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<?> save(@PathVariable("id") String id) {
         try {
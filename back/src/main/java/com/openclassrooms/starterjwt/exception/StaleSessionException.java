@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The session has been written since the version the update was based on
+ */
+@ResponseStatus(value= HttpStatus.CONFLICT)
+public class StaleSessionException extends RuntimeException {
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.exception;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+@Getter
+public class UnknownUserException extends BadRequestException {
+    private final Collection<Long> unknownIds;
+
+    public UnknownUserException(Collection<Long> unknownIds) {
+        this.unknownIds = unknownIds;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Unknown user(s): " + unknownIds.stream().map(String::valueOf).collect(Collectors.joining(", "));
+    }
+}
@@ -1,34 +1,46 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.SessionService;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
+import org.hibernate.Hibernate;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Component
-@Mapper(componentModel = "spring", uses = {UserService.class}, imports = {Arrays.class, Collectors.class, Session.class, User.class, Collections.class, Optional.class})
+@Mapper(componentModel = "spring", uses = {UserService.class}, imports = {Arrays.class, Collectors.class, Session.class, User.class, Collections.class, Optional.class, LinkedHashSet.class})
 public abstract class SessionMapper implements EntityMapper<SessionDto, Session> {
 
+    // version is the one the patch is based on, see SessionController.patch
+    private static final Set<String> PATCHABLE_FIELDS = new HashSet<>(Arrays.asList("name", "date", "description", "capacity", "teacher_id", "version"));
+
     @Autowired
     TeacherService teacherService;
     @Autowired
     UserService userService;
+    @Autowired
+    SessionService sessionService;
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
             @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.findById(sessionDto.getTeacher_id()) : null)"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"),
+            @Mapping(target = "users", expression = "java(new LinkedHashSet<>(this.userService.findAllById(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList))))"),
+            @Mapping(target = "participantCount", ignore = true),
+            // a version on a new entity would make it look detached, it is handed to SessionService.update instead
+            @Mapping(target = "version", ignore = true),
     })
     public abstract Session toEntity(SessionDto sessionDto);
 
@@ -36,7 +48,95 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
     @Mappings({
             @Mapping(source = "description", target = "description"),
             @Mapping(source = "session.teacher.id", target = "teacher_id"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
+            @Mapping(target = "users", expression = "java(participantIds(session))"),
     })
     public abstract SessionDto toDto(Session session);
+
+    @Mappings({
+            @Mapping(source = "description", target = "description"),
+            @Mapping(source = "session.teacher.id", target = "teacher_id"),
+            @Mapping(target = "users", ignore = true),
+    })
+    abstract SessionDto toDtoWithoutUsers(Session session);
+
+    @Mapping(source = "teacherId", target = "teacher_id")
+    public abstract SessionSummaryDto toSummaryDto(SessionSummary sessionSummary);
+
+    public abstract List<SessionSummaryDto> toSummaryDto(List<SessionSummary> sessionSummaries);
+
+    /**
+     * Applies the given fields of a merge patch to the session, the values being read into a dto.
+     * Participants cannot be patched, they are changed through participation.
+     * @throws BadRequestException if a field cannot be patched, or the teacher does not exist
+     */
+    public void patch(Session session, SessionDto values, Set<String> fields) {
+        if (!PATCHABLE_FIELDS.containsAll(fields)) {
+            throw new BadRequestException();
+        }
+
+        if (fields.contains("name")) {
+            session.setName(values.getName());
+        }
+        if (fields.contains("date")) {
+            session.setDate(values.getDate());
+        }
+        if (fields.contains("description")) {
+            session.setDescription(values.getDescription());
+        }
+        // null removes the limit
+        if (fields.contains("capacity")) {
+            session.setCapacity(values.getCapacity());
+        }
+        if (fields.contains("teacher_id")) {
+            Teacher teacher = values.getTeacher_id() != null ? this.teacherService.findById(values.getTeacher_id()) : null;
+            if (teacher == null) {
+                throw new BadRequestException();
+            }
+            session.setTeacher(teacher);
+        }
+    }
+
+    /**
+     * Maps a list of sessions, loading the participant ids of all not yet loaded sessions in a single query
+     */
+    @Override
+    public List<SessionDto> toDto(List<Session> sessions) {
+        if (sessions == null) {
+            return null;
+        }
+
+        List<Long> lazySessionIds = sessions.stream()
+                .filter(session -> session != null && !Hibernate.isInitialized(session.getUsers()))
+                .map(Session::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Long>> participantIds = lazySessionIds.isEmpty() ? Collections.emptyMap() : this.sessionService.findParticipantIds(lazySessionIds);
+
+        List<SessionDto> sessionDtos = new ArrayList<>(sessions.size());
+        for (Session session : sessions) {
+            SessionDto sessionDto = toDtoWithoutUsers(session);
+            if (sessionDto != null) {
+                sessionDto.setUsers(Hibernate.isInitialized(session.getUsers()) ?
+                        loadedParticipantIds(session)
+                        : new ArrayList<>(participantIds.getOrDefault(session.getId(), Collections.emptyList())));
+            }
+            sessionDtos.add(sessionDto);
+        }
+        return sessionDtos;
+    }
+
+    /**
+     * Participant ids are read from the users collection when it is already loaded,
+     * otherwise they are fetched through an id-only projection instead of loading the users
+     */
+    protected List<Long> participantIds(Session session) {
+        if (Hibernate.isInitialized(session.getUsers())) {
+            return loadedParticipantIds(session);
+        }
+        return new ArrayList<>(this.sessionService.findParticipantIds(Collections.singletonList(session.getId()))
+                .getOrDefault(session.getId(), Collections.emptyList()));
+    }
+
+    private List<Long> loadedParticipantIds(Session session) {
+        return Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptySet).stream().map(User::getId).collect(Collectors.toList());
+    }
 }
@@ -3,20 +3,24 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
 import java.util.Date;
-import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "SESSIONS")
+// updates only write the changed columns, see SessionService.patch
+@DynamicUpdate
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -27,7 +31,9 @@ import java.util.List;
 @ToString
 public class Session {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ids are allocated by blocks, unlike identity columns this lets hibernate batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "SESSIONS_SEQ", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -41,16 +47,31 @@ public class Session {
     @Size(max = 2500)
     private String description;
 
-    @OneToOne
+    // no limit when null
+    @Min(1)
+    private Integer capacity;
+
+    // maintained along with PARTICIPATE, see SessionRepository.book and SessionRepository.cancel
+    @Column(name = "participant_count", nullable = false)
+    private int participantCount;
+
+    // bumped by every write, including the in place ones of SessionRepository
+    @Version
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // participants are only loaded on demand, see SessionService.findParticipantIds
+    @ManyToMany(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
-            inverseJoinColumns = @JoinColumn( name = "user_id" ) )
-    private List<User> users;
+            inverseJoinColumns = @JoinColumn( name = "user_id" ),
+            indexes = @Index(name = "IDX_PARTICIPATE_USER_ID", columnList = "user_id") )
+    private Set<User> users;
 
     @CreatedDate
     @Column(name = "created_at", updatable = false)
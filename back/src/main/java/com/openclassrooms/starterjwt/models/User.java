@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "USERS", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "email")
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
 })
 @Data
 @Accessors(chain = true)
@@ -25,8 +25,12 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 public class User {
+  // same name as in the migrations, so that a taken email can be told apart from other violations
+  public static final String EMAIL_CONSTRAINT = "UK_USERS_EMAIL";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+  @SequenceGenerator(name = "users_seq", sequenceName = "USERS_SEQ", allocationSize = 50)
   private Long id;
 
   @NonNull
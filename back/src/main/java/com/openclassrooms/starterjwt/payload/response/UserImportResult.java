@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one record of a bulk user import, written as soon as its chunk is processed
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+  public enum Status {
+    CREATED,
+    EMAIL_TAKEN,
+    INVALID,
+    // the input could not be read any further, the import stopped there
+    MALFORMED
+  }
+
+  // record number in a json array, line number in a csv file
+  private long line;
+
+  private String email;
+
+  private Status status;
+
+  private String message;
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * Participation writes, kept consistent with the participant counter of the session
+ */
+public interface SessionBookingRepository {
+
+    enum Booking {
+        BOOKED,
+        ALREADY_BOOKED,
+        FULL,
+        NO_SESSION
+    }
+
+    /**
+     * Books a seat for the user, as long as the session is not full and the user does not already participate
+     */
+    Booking book(Long sessionId, Long userId);
+
+    /**
+     * Releases the seat of the user
+     * @return false if the user did not participate
+     */
+    boolean cancel(Long sessionId, Long userId);
+}
@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Both paths lock the session row first, for the duration of the transaction only : bookings of one session
+ * are serialized on that row while bookings of other sessions are not affected.
+ * Updates and removals of the session take that lock before touching PARTICIPATE too, see SessionUpdateRepositoryImpl,
+ * so that no write path can deadlock with another.
+ * A seat is then taken by a conditional update of the participant counter, so that the capacity holds
+ * even against writes that would not take the lock.
+ * Refusals are returned rather than thrown : the transaction always commits, nothing is ever rolled back
+ * on the hot row of a popular session.
+ */
+public class SessionBookingRepositoryImpl implements SessionBookingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Booking book(Long sessionId, Long userId) {
+        if (!lockSession(sessionId)) {
+            return Booking.NO_SESSION;
+        }
+
+        Number participations = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId")
+                .setParameter("sessionId", sessionId)
+                .setParameter("userId", userId)
+                .getSingleResult();
+        if (participations.longValue() > 0) {
+            return Booking.ALREADY_BOOKED;
+        }
+
+        int reserved = entityManager.createNativeQuery("UPDATE SESSIONS SET participant_count = participant_count + 1, version = version + 1, updated_at = CURRENT_TIMESTAMP" +
+                        " WHERE id = :sessionId AND (capacity IS NULL OR participant_count < capacity)")
+                .setParameter("sessionId", sessionId)
+                .executeUpdate();
+        if (reserved == 0) {
+            return Booking.FULL;
+        }
+
+        entityManager.createNativeQuery("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (:sessionId, :userId)")
+                .setParameter("sessionId", sessionId)
+                .setParameter("userId", userId)
+                .executeUpdate();
+        return Booking.BOOKED;
+    }
+
+    @Override
+    @Transactional
+    public boolean cancel(Long sessionId, Long userId) {
+        lockSession(sessionId);
+
+        int deleted = entityManager.createNativeQuery("DELETE FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId")
+                .setParameter("sessionId", sessionId)
+                .setParameter("userId", userId)
+                .executeUpdate();
+        if (deleted == 0) {
+            return false;
+        }
+
+        entityManager.createNativeQuery("UPDATE SESSIONS SET participant_count = participant_count - 1, version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = :sessionId")
+                .setParameter("sessionId", sessionId)
+                .executeUpdate();
+        return true;
+    }
+
+    /**
+     * @return false if the session does not exist, e.g. it has just been removed
+     */
+    private boolean lockSession(Long sessionId) {
+        return !entityManager.createNativeQuery("SELECT id FROM SESSIONS WHERE id = :sessionId FOR UPDATE")
+                .setParameter("sessionId", sessionId)
+                .getResultList()
+                .isEmpty();
+    }
+}
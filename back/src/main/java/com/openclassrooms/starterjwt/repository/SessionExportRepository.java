@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+import java.util.function.Consumer;
+
+/**
+ * Full reads of the sessions that do not hold them all in memory
+ */
+public interface SessionExportRepository {
+
+    /**
+     * Reads all sessions with their participants through a forward-only cursor, in id order.
+     * Each session is handed over as soon as its last row is read, with its teacher and users reduced to their ids.
+     */
+    void streamAll(Consumer<Session> consumer);
+}
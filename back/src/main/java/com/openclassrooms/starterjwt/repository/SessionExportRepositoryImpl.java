@@ -0,0 +1,79 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
+
+/**
+ * Sessions and participants are read by a single join ordered by session, so that the rows of a session are contiguous
+ * and only the current session is kept while the cursor moves on.
+ * The fetch size is only set on the export's own JdbcTemplate : on MySQL, Integer.MIN_VALUE streams the rows of this
+ * statement instead of loading the whole result, without changing how the driver runs any other query.
+ * The connection cannot run another statement until the rows are read, which the export never needs.
+ */
+public class SessionExportRepositoryImpl implements SessionExportRepository {
+    private static final String SELECT_SESSIONS_WITH_PARTICIPANTS = "SELECT s.id, s.name, s.date, s.description, s.capacity, s.teacher_id," +
+            " s.version, s.created_at, s.updated_at, p.user_id" +
+            " FROM SESSIONS s LEFT JOIN PARTICIPATE p ON p.session_id = s.id" +
+            " ORDER BY s.id, p.user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessionExportRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${oc.app.sessionExportFetchSize}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public void streamAll(Consumer<Session> consumer) {
+        Session[] current = new Session[1];
+        jdbcTemplate.query(SELECT_SESSIONS_WITH_PARTICIPANTS, resultSet -> {
+            long id = resultSet.getLong("id");
+            if (current[0] == null || current[0].getId() != id) {
+                if (current[0] != null) {
+                    consumer.accept(current[0]);
+                }
+                current[0] = toSession(resultSet);
+            }
+            long userId = resultSet.getLong("user_id");
+            if (!resultSet.wasNull()) {
+                current[0].getUsers().add(new User().setId(userId));
+            }
+        });
+        if (current[0] != null) {
+            consumer.accept(current[0]);
+        }
+    }
+
+    private static Session toSession(ResultSet resultSet) throws SQLException {
+        long teacherId = resultSet.getLong("teacher_id");
+        Teacher teacher = resultSet.wasNull() ? null : new Teacher().setId(teacherId);
+        int capacity = resultSet.getInt("capacity");
+        Integer sessionCapacity = resultSet.wasNull() ? null : capacity;
+
+        return new Session()
+                .setId(resultSet.getLong("id"))
+                .setName(resultSet.getString("name"))
+                .setDate(resultSet.getTimestamp("date"))
+                .setDescription(resultSet.getString("description"))
+                .setCapacity(sessionCapacity)
+                .setTeacher(teacher)
+                .setUsers(new LinkedHashSet<>())
+                .setVersion(resultSet.getLong("version"))
+                .setCreatedAt(toLocalDateTime(resultSet.getTimestamp("created_at")))
+                .setUpdatedAt(toLocalDateTime(resultSet.getTimestamp("updated_at")));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * Id-only view of a PARTICIPATE row, used when only participant ids are needed
+ */
+public interface SessionParticipant {
+    Long getSessionId();
+
+    Long getUserId();
+}
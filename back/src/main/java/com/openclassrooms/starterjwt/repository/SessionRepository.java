@@ -1,9 +1,89 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
 @Repository
-public interface SessionRepository  extends JpaRepository<Session, Long> {
+public interface SessionRepository  extends JpaRepository<Session, Long>, SessionBookingRepository, SessionExportRepository, SessionUpdateRepository {
+
+    @Query("select s.id as sessionId, u.id as userId from Session s join s.users u where s.id in :sessionIds")
+    List<SessionParticipant> findParticipantIds(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Query("select count(s) as count, max(s.id) as lastId, sum(s.version) as version, max(s.updatedAt) as lastModified from Session s")
+    SessionStamp findStamp();
+
+    @Query("select count(s) as count, max(s.id) as lastId, sum(s.version) as version, max(s.updatedAt) as lastModified from Session s where s.id = :id")
+    SessionStamp findStampById(@Param("id") Long id);
+
+    @Query("select s.id as id, s.name as name, s.date as date, s.teacher.id as teacherId," +
+            " s.capacity as capacity, s.participantCount as participantCount" +
+            " from Session s order by s.date, s.id")
+    List<SessionSummary> findAllSummaries();
+
+    @Query("select s from Session s" +
+            " where (:teacherId is null or s.teacher.id = :teacherId)" +
+            " and (:from is null or s.date >= :from)" +
+            " and (:to is null or s.date < :to)" +
+            " order by s.date, s.id")
+    List<Session> findFirstPage(@Param("teacherId") Long teacherId,
+                                @Param("from") Date from,
+                                @Param("to") Date to,
+                                Pageable pageable);
+
+    @Query("select s from Session s" +
+            " where (s.date > :afterDate or (s.date = :afterDate and s.id > :afterId))" +
+            " and (:teacherId is null or s.teacher.id = :teacherId)" +
+            " and (:from is null or s.date >= :from)" +
+            " and (:to is null or s.date < :to)" +
+            " order by s.date, s.id")
+    List<Session> findPageAfter(@Param("afterDate") Date afterDate,
+                                @Param("afterId") Long afterId,
+                                @Param("teacherId") Long teacherId,
+                                @Param("from") Date from,
+                                @Param("to") Date to,
+                                Pageable pageable);
+
+    // sessions of a participant go through the PARTICIPATE(user_id) index, whatever the number of sessions
+
+    @Query("select s from Session s join s.users u" +
+            " where u.id = :userId and s.date >= :now" +
+            " order by s.date, s.id")
+    List<Session> findUpcomingByParticipant(@Param("userId") Long userId,
+                                            @Param("now") Date now,
+                                            Pageable pageable);
+
+    @Query("select s from Session s join s.users u" +
+            " where u.id = :userId and s.date >= :now" +
+            " and (s.date > :afterDate or (s.date = :afterDate and s.id > :afterId))" +
+            " order by s.date, s.id")
+    List<Session> findUpcomingByParticipantAfter(@Param("userId") Long userId,
+                                                 @Param("now") Date now,
+                                                 @Param("afterDate") Date afterDate,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    @Query("select s from Session s join s.users u" +
+            " where u.id = :userId and s.date < :now" +
+            " order by s.date desc, s.id desc")
+    List<Session> findPastByParticipant(@Param("userId") Long userId,
+                                        @Param("now") Date now,
+                                        Pageable pageable);
+
+    @Query("select s from Session s join s.users u" +
+            " where u.id = :userId and s.date < :now" +
+            " and (s.date < :beforeDate or (s.date = :beforeDate and s.id < :beforeId))" +
+            " order by s.date desc, s.id desc")
+    List<Session> findPastByParticipantBefore(@Param("userId") Long userId,
+                                              @Param("now") Date now,
+                                              @Param("beforeDate") Date beforeDate,
+                                              @Param("beforeId") Long beforeId,
+                                              Pageable pageable);
 }
@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count, highest id and sum of the versions of a set of sessions, enough to tell whether their representation may have changed :
+ * a creation raises the highest id, ids coming from a sequence, a deletion lowers the count, and every other write bumps a version,
+ * participation changes included, see SessionBookingRepositoryImpl.
+ */
+public interface SessionStamp {
+    long getCount();
+
+    // null when there is no session
+    Long getLastId();
+
+    // sum of the versions, so the version of the session when the stamp covers a single one ; null when there is no session
+    Long getVersion();
+
+    // informational only : updated_at has second precision on MySQL and is written by both the JVM and the database clocks,
+    // null when there is no session, or when no session has a modification date
+    LocalDateTime getLastModified();
+}
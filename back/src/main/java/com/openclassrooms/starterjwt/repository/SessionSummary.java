@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Date;
+
+/**
+ * Light view of a session for list screens, participants are only counted through the maintained participant_count
+ */
+public interface SessionSummary {
+    Long getId();
+
+    String getName();
+
+    Date getDate();
+
+    Long getTeacherId();
+
+    Integer getCapacity();
+
+    int getParticipantCount();
+}
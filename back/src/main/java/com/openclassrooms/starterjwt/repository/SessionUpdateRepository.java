@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+/**
+ * Session writes made in place, without loading the session first
+ */
+public interface SessionUpdateRepository {
+
+    /**
+     * Overwrites the session and its participants with the given state, as long as it is still at the expected version
+     * @param expectedVersion null to update whatever the current version
+     * @return false if no session with that id is at the expected version
+     */
+    boolean update(Session session, Long expectedVersion);
+
+    /**
+     * Deletes the session and its participations, whatever its version
+     * @return false if no session with that id exists
+     */
+    boolean remove(Long id);
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * The session row is updated first, conditionally on its version : this takes the same row lock as bookings
+ * before PARTICIPATE is touched, see SessionBookingRepositoryImpl.
+ * Participants are then synchronized by difference, so that the statement count does not depend on their number.
+ * A removal locks the session row the same way before deleting the participations, then the session itself.
+ */
+public class SessionUpdateRepositoryImpl implements SessionUpdateRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public boolean update(Session session, Long expectedVersion) {
+        Query update = entityManager.createQuery("update Session s set s.name = :name, s.date = :date, s.description = :description," +
+                        " s.capacity = :capacity, s.teacher = :teacher, s.participantCount = :participantCount," +
+                        " s.version = s.version + 1, s.updatedAt = current_timestamp" +
+                        " where s.id = :id" + (expectedVersion != null ? " and s.version = :expectedVersion" : ""))
+                .setParameter("name", session.getName())
+                .setParameter("date", session.getDate())
+                .setParameter("description", session.getDescription())
+                .setParameter("capacity", session.getCapacity())
+                .setParameter("teacher", session.getTeacher())
+                .setParameter("participantCount", session.getParticipantCount())
+                .setParameter("id", session.getId());
+        if (expectedVersion != null) {
+            update.setParameter("expectedVersion", expectedVersion);
+        }
+        if (update.executeUpdate() == 0) {
+            return false;
+        }
+
+        List<Long> userIds = Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptySet).stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+        if (userIds.isEmpty()) {
+            entityManager.createNativeQuery("DELETE FROM PARTICIPATE WHERE session_id = :sessionId")
+                    .setParameter("sessionId", session.getId())
+                    .executeUpdate();
+            return true;
+        }
+
+        entityManager.createNativeQuery("DELETE FROM PARTICIPATE WHERE session_id = :sessionId AND user_id NOT IN (:userIds)")
+                .setParameter("sessionId", session.getId())
+                .setParameter("userIds", userIds)
+                .executeUpdate();
+        entityManager.createNativeQuery("INSERT INTO PARTICIPATE (session_id, user_id)" +
+                        " SELECT :sessionId, u.id FROM USERS u WHERE u.id IN (:userIds)" +
+                        " AND NOT EXISTS (SELECT 1 FROM PARTICIPATE p WHERE p.session_id = :sessionId AND p.user_id = u.id)")
+                .setParameter("sessionId", session.getId())
+                .setParameter("userIds", userIds)
+                .executeUpdate();
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean remove(Long id) {
+        List<?> locked = entityManager.createNativeQuery("SELECT id FROM SESSIONS WHERE id = :sessionId FOR UPDATE")
+                .setParameter("sessionId", id)
+                .getResultList();
+        if (locked.isEmpty()) {
+            return false;
+        }
+
+        entityManager.createNativeQuery("DELETE FROM PARTICIPATE WHERE session_id = :sessionId")
+                .setParameter("sessionId", id)
+                .executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM SESSIONS WHERE id = :sessionId")
+                .setParameter("sessionId", id)
+                .executeUpdate();
+        return true;
+    }
+}
@@ -1,6 +1,10 @@
 package com.openclassrooms.starterjwt.security;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,9 +15,11 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.openclassrooms.starterjwt.security.crypto.BoundedPasswordEncoder;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
@@ -25,12 +31,29 @@ import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
     // jsr250Enabled = true,
     prePostEnabled = true)
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
+  private static final String BCRYPT = "bcrypt";
+
   @Autowired
   UserDetailsServiceImpl userDetailsService;
 
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Value("${oc.app.bcryptStrength}")
+  private int bcryptStrength;
+
+  @Value("${oc.app.passwordHashingThreads}")
+  private int passwordHashingThreads;
+
+  @Value("${oc.app.passwordHashingQueueCapacity}")
+  private int passwordHashingQueueCapacity;
+
+  @Value("${oc.app.passwordHashingTimeoutMs}")
+  private long passwordHashingTimeoutMs;
+
+  @Value("${server.tomcat.threads.max}")
+  private int maxRequestThreads;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -47,9 +70,28 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     return super.authenticationManagerBean();
   }
 
+  /**
+   * Every hash waiting in the queue holds a request thread : the queue never exceeds a tenth of them,
+   * so that a login burst is refused with a 503 while the rest of the api keeps being served
+   */
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int queueCapacity = Math.max(1, Math.min(passwordHashingQueueCapacity, maxRequestThreads / 10));
+    return new BoundedPasswordEncoder(delegatingPasswordEncoder(bcryptStrength),
+        passwordHashingThreads, queueCapacity, passwordHashingTimeoutMs);
+  }
+
+  /**
+   * Hashes are prefixed by the id of their encoder, e.g. {bcrypt}, so that the algorithm or its strength can change :
+   * a password hashed with other parameters is re-hashed on the next successful login, see UserDetailsServiceImpl.updatePassword.
+   * Hashes without prefix come from before and are bcrypt ones.
+   */
+  public static PasswordEncoder delegatingPasswordEncoder(int bcryptStrength) {
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put(BCRYPT, new BCryptPasswordEncoder(bcryptStrength));
+    DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(BCRYPT, encoders);
+    passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT));
+    return passwordEncoder;
   }
 
   @Override
@@ -1,6 +1,15 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,20 +17,68 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class JwtUtils {
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+  private static final SignatureAlgorithm SIGNATURE_ALGORITHM = SignatureAlgorithm.HS512;
+
   @Value("${oc.app.jwtSecret}")
   private String jwtSecret;
 
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  // 0 disables the verified token cache
+  @Value("${oc.app.jwtCacheMaxSize}")
+  private long jwtCacheMaxSize;
+
+  private Key signingKey;
+
+  // never reconfigured after init, so it can be shared by all requests
+  private JwtParser jwtParser;
+
+  // claims of already verified tokens, by token digest, each one kept until the token expires
+  private Cache<String, Claims> verifiedTokens;
+
+  /**
+   * Derives the signing key once, from the same bytes as signWith(HS512, jwtSecret) used to,
+   * so that tokens issued before keep being accepted
+   */
+  @PostConstruct
+  void init() {
+    signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SIGNATURE_ALGORITHM.getJcaName());
+    jwtParser = Jwts.parser().setSigningKey(signingKey);
+    // created empty along with the key, so every cached claim has been verified with the key in use
+    verifiedTokens = Caffeine.newBuilder()
+        .maximumSize(jwtCacheMaxSize)
+        .expireAfter(new Expiry<String, Claims>() {
+          @Override
+          public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()));
+          }
+
+          @Override
+          public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
@@ -30,18 +87,44 @@ public class JwtUtils {
         .setSubject((userPrincipal.getUsername()))
         .setIssuedAt(new Date())
         .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .signWith(SIGNATURE_ALGORITHM, signingKey)
         .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return jwtParser.parseClaimsJws(token).getBody().getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseAndValidate(authToken) != null;
+  }
+
+  /**
+   * Verifies the signature and the expiration of the token, and reads its claims, in a single pass.
+   * A token already verified is only checked for expiration : its claims are served from cache, and must not be modified.
+   * @return the claims of the token, or null if the token is not valid
+   */
+  public Claims parseAndValidate(String authToken) {
+    String digest = jwtCacheMaxSize > 0 && authToken != null ? digest(authToken) : null;
+    if (digest != null) {
+      Claims claims = verifiedTokens.getIfPresent(digest);
+      if (claims != null) {
+        if (claims.getExpiration().after(new Date())) {
+          return claims;
+        }
+        verifiedTokens.invalidate(digest);
+        logger.error("JWT token is expired: {}", claims.getExpiration());
+        return null;
+      }
+    }
+
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+      // tokens without expiration are never cached
+      if (digest != null && claims.getExpiration() != null) {
+        verifiedTokens.put(digest, claims);
+      }
+      return claims;
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
     } catch (MalformedJwtException e) {
@@ -54,6 +137,17 @@ public class JwtUtils {
       logger.error("JWT claims string is empty: {}", e.getMessage());
     }
 
-    return false;
+    return null;
+  }
+
+  // tokens themselves are not kept in memory
+  private static String digest(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
   }
 }
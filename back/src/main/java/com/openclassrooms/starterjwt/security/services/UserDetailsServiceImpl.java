@@ -1,24 +1,28 @@
 package com.openclassrooms.starterjwt.security.services;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import com.openclassrooms.starterjwt.config.CacheConfig;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
   UserRepository userRepository;
 
   UserDetailsServiceImpl(UserRepository userRepository) {
     this.userRepository = userRepository;
   }
 
+  // principals are cached until they expire or their user is deleted, see UserService.delete
   @Override
-  @Transactional
+  @Cacheable(CacheConfig.PRINCIPALS)
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
     User user = userRepository.findByEmail(username)
         .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + username));
@@ -29,8 +33,28 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             .username(user.getEmail())
             .lastName(user.getLastName())
             .firstName(user.getFirstName())
+            .admin(user.isAdmin())
             .password(user.getPassword())
             .build();
   }
 
+  /**
+   * Stores a password re-hashed on login with the current encoder parameters, see WebSecurityConfig.passwordEncoder
+   */
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, key = "#user.username")
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    userRepository.updatePassword(user.getUsername(), newPassword);
+
+    UserDetailsImpl userDetails = (UserDetailsImpl) user;
+    return UserDetailsImpl
+            .builder()
+            .id(userDetails.getId())
+            .username(userDetails.getUsername())
+            .lastName(userDetails.getLastName())
+            .firstName(userDetails.getFirstName())
+            .admin(userDetails.getAdmin())
+            .password(newPassword)
+            .build();
+  }
 }
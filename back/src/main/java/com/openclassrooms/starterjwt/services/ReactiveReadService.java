@@ -0,0 +1,55 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads of sessions and teachers for streaming clients, run on the read scheduler instead of the request thread,
+ * see ReactiveReadConfig. Anything chained on the returned publishers runs on that scheduler too.
+ */
+@Service
+public class ReactiveReadService {
+    private final SessionService sessionService;
+
+    private final TeacherService teacherService;
+
+    private final Scheduler readScheduler;
+
+    public ReactiveReadService(SessionService sessionService, TeacherService teacherService, Scheduler readScheduler) {
+        this.sessionService = sessionService;
+        this.teacherService = teacherService;
+        this.readScheduler = readScheduler;
+    }
+
+    /**
+     * Sessions ordered by (date, id), by keyset pages, see SessionService.findPage.
+     * A page is only read when the subscriber asks for it, so a slow client never has more than one page in memory.
+     */
+    public Flux<List<Session>> findSessionPages(Long teacherId, Date from, Date to, int pageSize) {
+        return Flux.<List<Session>, Optional<SessionCursor>>generate(Optional::empty, (cursor, sink) -> {
+                    List<Session> page = this.sessionService.findPage(cursor.orElse(null), teacherId, from, to, pageSize);
+                    if (!page.isEmpty()) {
+                        sink.next(page);
+                    }
+                    if (page.size() < pageSize) {
+                        sink.complete();
+                        return cursor;
+                    }
+                    return Optional.of(SessionCursor.of(page.get(page.size() - 1)));
+                })
+                .subscribeOn(this.readScheduler);
+    }
+
+    public Mono<List<Teacher>> findAllTeachers() {
+        return Mono.fromCallable(this.teacherService::findAll)
+                .subscribeOn(this.readScheduler);
+    }
+}
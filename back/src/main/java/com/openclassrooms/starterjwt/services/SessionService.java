@@ -2,77 +2,233 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
+import com.openclassrooms.starterjwt.exception.StaleSessionException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionBookingRepository.Booking;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionStamp;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import javax.validation.Validator;
+
+import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class SessionService {
+    // keeps the IN list of participant lookups to a reasonable size
+    private static final int PARTICIPANTS_BATCH_SIZE = 1000;
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    public SessionService(SessionRepository sessionRepository,
+                          UserRepository userRepository,
+                          TransactionTemplate transactionTemplate,
+                          Validator validator) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
     }
 
     public Session create(Session session) {
+        countParticipants(session);
         return this.sessionRepository.save(session);
     }
 
+    /**
+     * Deletes the session with its participations, whatever its version ; safe against concurrent bookings, see SessionRepository.remove
+     * @throws NotFoundException if the session does not exist
+     */
     public void delete(Long id) {
-        this.sessionRepository.deleteById(id);
+        if (!this.sessionRepository.remove(id)) {
+            throw new NotFoundException();
+        }
     }
 
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    /**
+     * Cheap validator of the whole session listing, read from the sessions table only
+     */
+    public SessionStamp getStamp() {
+        return this.sessionRepository.findStamp();
+    }
+
+    /**
+     * Cheap validator of one session, its count is 0 when the session does not exist
+     */
+    public SessionStamp getStamp(Long id) {
+        return this.sessionRepository.findStampById(id);
+    }
+
+    /**
+     * Lists all sessions without their participants, read in a single query from the sessions table only
+     */
+    public List<SessionSummary> findAllSummaries() {
+        return this.sessionRepository.findAllSummaries();
+    }
+
+    /**
+     * Loads at most limit sessions ordered by (date, id), starting right after the given cursor.
+     * Seeks on the (date, id) index instead of using an offset, so later pages cost the same as the first one.
+     */
+    public List<Session> findPage(SessionCursor cursor, Long teacherId, Date from, Date to, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        if (cursor == null) {
+            return this.sessionRepository.findFirstPage(teacherId, from, to, pageable);
+        }
+        return this.sessionRepository.findPageAfter(cursor.getDate(), cursor.getId(), teacherId, from, to, pageable);
+    }
+
+    /**
+     * Loads at most limit sessions of a participant, starting right after the given cursor :
+     * upcoming ones from the nearest, or past ones from the latest.
+     * @throws NotFoundException if the user does not exist
+     */
+    public List<Session> findParticipantPage(Long userId, boolean past, SessionCursor cursor, int limit) {
+        if (!this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+
+        Date now = new Date();
+        Pageable pageable = PageRequest.of(0, limit);
+        if (past) {
+            return cursor == null ? this.sessionRepository.findPastByParticipant(userId, now, pageable)
+                    : this.sessionRepository.findPastByParticipantBefore(userId, now, cursor.getDate(), cursor.getId(), pageable);
+        }
+        return cursor == null ? this.sessionRepository.findUpcomingByParticipant(userId, now, pageable)
+                : this.sessionRepository.findUpcomingByParticipantAfter(userId, now, cursor.getDate(), cursor.getId(), pageable);
+    }
+
+    /**
+     * Hands over every session with its participant ids, one at a time, see SessionRepository.streamAll
+     */
+    public void streamAll(Consumer<Session> consumer) {
+        this.sessionRepository.streamAll(consumer);
+    }
+
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
-    public Session update(Long id, Session session) {
+    /**
+     * Loads participant ids of the given sessions without loading the users themselves
+     * @return participant ids by session id ; sessions without participants are absent from the map
+     */
+    public Map<Long, List<Long>> findParticipantIds(List<Long> sessionIds) {
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+        for (int i = 0; i < sessionIds.size(); i += PARTICIPANTS_BATCH_SIZE) {
+            List<Long> batch = sessionIds.subList(i, Math.min(i + PARTICIPANTS_BATCH_SIZE, sessionIds.size()));
+            for (SessionParticipant participant : this.sessionRepository.findParticipantIds(batch)) {
+                participantIds.computeIfAbsent(participant.getSessionId(), k -> new ArrayList<>()).add(participant.getUserId());
+            }
+        }
+        return participantIds;
+    }
+
+    /**
+     * Overwrites the session in place, see SessionRepository.update
+     * @param expectedVersion version the update is based on, null to overwrite whatever the current version
+     * @throws NotFoundException if the session does not exist
+     * @throws StaleSessionException if the session is no longer at the expected version
+     */
+    public Session update(Long id, Session session, Long expectedVersion) {
         session.setId(id);
-        return this.sessionRepository.save(session);
+        countParticipants(session);
+        if (!this.sessionRepository.update(session, expectedVersion)) {
+            if (!this.sessionRepository.existsById(id)) {
+                throw new NotFoundException();
+            }
+            throw new StaleSessionException();
+        }
+        return this.sessionRepository.findById(id).orElseThrow(NotFoundException::new);
     }
 
-    public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
-            throw new NotFoundException();
+    /**
+     * Changes some fields of the session : it is loaded, patched, then only the changed columns are written.
+     * Participants are never loaded nor written.
+     * @param expectedVersion version the patch is based on, null to patch whatever the current version
+     * @throws NotFoundException if the session does not exist
+     * @throws StaleSessionException if the session is no longer at the expected version
+     * @throws BadRequestException if the patched session is not valid
+     */
+    public Session patch(Long id, Consumer<Session> patch, Long expectedVersion) {
+        try {
+            return this.transactionTemplate.execute(status -> {
+                Session session = this.sessionRepository.findById(id).orElseThrow(NotFoundException::new);
+                if (expectedVersion != null && !expectedVersion.equals(session.getVersion())) {
+                    throw new StaleSessionException();
+                }
+
+                patch.accept(session);
+                if (!this.validator.validate(session).isEmpty()
+                        || (session.getCapacity() != null && session.getParticipantCount() > session.getCapacity())) {
+                    throw new BadRequestException();
+                }
+                return session;
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // written by someone else between the read and the write
+            throw new StaleSessionException();
         }
+    }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
+    /**
+     * Participants set through create or update are counted as booked seats
+     */
+    private void countParticipants(Session session) {
+        int participantCount = session.getUsers() != null ? session.getUsers().size() : 0;
+        if (session.getCapacity() != null && participantCount > session.getCapacity()) {
             throw new BadRequestException();
         }
+        session.setParticipantCount(participantCount);
+    }
 
-        session.getUsers().add(user);
+    /**
+     * Books a seat for the user ; safe under contention, see SessionRepository.book
+     * @throws SessionFullException if the session has reached its capacity
+     */
+    public void participate(Long id, Long userId) {
+        if (!this.sessionRepository.existsById(id) || !this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
 
-        this.sessionRepository.save(session);
+        Booking booking = this.sessionRepository.book(id, userId);
+        if (booking == Booking.NO_SESSION) {
+            throw new NotFoundException();
+        }
+        if (booking == Booking.ALREADY_BOOKED) {
+            throw new BadRequestException();
+        }
+        if (booking == Booking.FULL) {
+            throw new SessionFullException();
+        }
     }
 
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+        if (!this.sessionRepository.existsById(id)) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+        if(!this.sessionRepository.cancel(id, userId)) {
             throw new BadRequestException();
         }
-
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
-
-        this.sessionRepository.save(session);
     }
 }
@@ -1,7 +1,9 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.config.CacheConfig;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,10 +16,12 @@ public class TeacherService {
         this.teacherRepository = teacherRepository;
     }
 
+    @Cacheable(cacheNames = CacheConfig.TEACHERS, key = "T(com.openclassrooms.starterjwt.config.CacheConfig).ALL_TEACHERS")
     public List<Teacher> findAll() {
         return this.teacherRepository.findAll();
     }
 
+    @Cacheable(cacheNames = CacheConfig.TEACHERS, unless = "#result == null")
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
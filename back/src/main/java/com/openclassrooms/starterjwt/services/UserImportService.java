@@ -0,0 +1,294 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.response.UserImportResult;
+import com.openclassrooms.starterjwt.payload.response.UserImportResult.Status;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.WebSecurityConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Creates users in bulk from a json array or a csv file of sign-up records.
+ * Records are read and processed by chunks : each chunk is validated, checked against existing emails in one query,
+ * hashed in parallel and inserted in jdbc batches, then its results are handed over before the next chunk is read.
+ */
+@Service
+public class UserImportService {
+    private static final String CSV_HEADER = "email,firstName,lastName,password";
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int chunkSize;
+
+    // hashes with all cores rather than on the small login pool, see WebSecurityConfig.passwordEncoder
+    private final PasswordEncoder passwordEncoder;
+
+    private final ExecutorService hashingExecutor;
+
+    public UserImportService(UserRepository userRepository,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             @Value("${oc.app.bcryptStrength}") int bcryptStrength,
+                             @Value("${oc.app.userImportChunkSize}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.passwordEncoder = WebSecurityConfig.delegatingPasswordEncoder(bcryptStrength);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashingExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    /**
+     * Imports a json array of sign-up records
+     */
+    public void importJson(InputStream input, Consumer<UserImportResult> results) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            AtomicInteger recordCount = new AtomicInteger();
+            importRecords(() -> {
+                JsonToken token = parser.nextToken();
+                if (recordCount.get() == 0 && token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+                else if (recordCount.get() == 0) {
+                    throw new IOException("Expected a json array of users");
+                }
+                if (token == JsonToken.END_ARRAY || token == null) {
+                    return null;
+                }
+                SignupRequest signupRequest = objectMapper.readValue(parser, SignupRequest.class);
+                return new ImportRecord(recordCount.incrementAndGet(), signupRequest);
+            }, () -> recordCount.get() + 1, results);
+        }
+    }
+
+    /**
+     * Imports a csv file with a header line, columns being email,firstName,lastName,password.
+     * Fields are not quoted ; as the last column, the password may contain commas.
+     */
+    public void importCsv(InputStream input, Consumer<UserImportResult> results) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            AtomicInteger lineCount = new AtomicInteger();
+            importRecords(() -> {
+                String line = reader.readLine();
+                if (lineCount.getAndIncrement() == 0) {
+                    if (line == null || !CSV_HEADER.equals(line.trim())) {
+                        throw new IOException("Expected header " + CSV_HEADER);
+                    }
+                    line = nextLine(reader, lineCount);
+                }
+                while (line != null && line.trim().isEmpty()) {
+                    line = nextLine(reader, lineCount);
+                }
+                if (line == null) {
+                    return null;
+                }
+                String[] fields = line.split(",", 4);
+                if (fields.length != 4) {
+                    throw new IOException("Expected 4 fields");
+                }
+                SignupRequest signupRequest = new SignupRequest();
+                signupRequest.setEmail(fields[0].trim());
+                signupRequest.setFirstName(fields[1].trim());
+                signupRequest.setLastName(fields[2].trim());
+                signupRequest.setPassword(fields[3]);
+                return new ImportRecord(lineCount.get(), signupRequest);
+            }, lineCount::get, results);
+        }
+    }
+
+    private static String nextLine(BufferedReader reader, AtomicInteger lineCount) throws IOException {
+        lineCount.incrementAndGet();
+        return reader.readLine();
+    }
+
+    private void importRecords(RecordReader reader, PositionSupplier position, Consumer<UserImportResult> results) {
+        List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+        try {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk).forEach(results);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            importChunk(chunk).forEach(results);
+            results.accept(new UserImportResult(position.get(), null, Status.MALFORMED, e.getMessage()));
+            return;
+        }
+        importChunk(chunk).forEach(results);
+    }
+
+    private List<UserImportResult> importChunk(List<ImportRecord> chunk) {
+        if (chunk.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        UserImportResult[] results = new UserImportResult[chunk.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRecord record = chunk.get(i);
+            Set<ConstraintViolation<SignupRequest>> violations = validator.validate(record.signupRequest);
+            if (!violations.isEmpty()) {
+                results[i] = result(record, Status.INVALID, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+            else {
+                candidates.add(i);
+            }
+        }
+
+        // emails already registered, or appearing earlier in the chunk
+        Set<String> takenEmails = findExistingEmails(candidates.stream().map(i -> chunk.get(i).signupRequest.getEmail()).collect(Collectors.toSet()));
+        List<Integer> toInsert = new ArrayList<>();
+        for (Integer i : candidates) {
+            if (!takenEmails.add(chunk.get(i).signupRequest.getEmail())) {
+                results[i] = result(chunk.get(i), Status.EMAIL_TAKEN, null);
+            }
+            else {
+                toInsert.add(i);
+            }
+        }
+
+        List<Future<String>> hashes = toInsert.stream()
+                .map(i -> hashingExecutor.submit(() -> passwordEncoder.encode(chunk.get(i).signupRequest.getPassword())))
+                .collect(Collectors.toList());
+        List<SignupRequest> signupRequests = new ArrayList<>(toInsert.size());
+        List<String> encodedPasswords = new ArrayList<>(toInsert.size());
+        for (int j = 0; j < toInsert.size(); j++) {
+            signupRequests.add(chunk.get(toInsert.get(j)).signupRequest);
+            encodedPasswords.add(await(hashes.get(j)));
+        }
+
+        List<Status> statuses = insert(signupRequests, encodedPasswords);
+        for (int j = 0; j < toInsert.size(); j++) {
+            results[toInsert.get(j)] = result(chunk.get(toInsert.get(j)), statuses.get(j), null);
+        }
+        return Arrays.asList(results);
+    }
+
+    private Set<String> findExistingEmails(Set<String> emails) {
+        if (emails.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(userRepository.findExistingEmails(emails));
+    }
+
+    /**
+     * Inserts all users in one transaction, sent as jdbc batches ; if an email got registered in the meantime
+     * the transaction is rolled back and users are inserted one by one to tell which ones are taken
+     * @return status of each user, in order
+     */
+    private List<Status> insert(List<SignupRequest> signupRequests, List<String> encodedPasswords) {
+        List<Status> statuses = new ArrayList<>(signupRequests.size());
+        if (signupRequests.isEmpty()) {
+            return statuses;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(newUsers(signupRequests, encodedPasswords)));
+            signupRequests.forEach(signupRequest -> statuses.add(Status.CREATED));
+        } catch (DataIntegrityViolationException e) {
+            for (User user : newUsers(signupRequests, encodedPasswords)) {
+                try {
+                    userRepository.save(user);
+                    statuses.add(Status.CREATED);
+                } catch (DataIntegrityViolationException rowException) {
+                    statuses.add(Status.EMAIL_TAKEN);
+                }
+            }
+        }
+        return statuses;
+    }
+
+    // new instances on each attempt, a rolled back persist leaves its ids on the entities
+    private static List<User> newUsers(List<SignupRequest> signupRequests, List<String> encodedPasswords) {
+        List<User> users = new ArrayList<>(signupRequests.size());
+        for (int j = 0; j < signupRequests.size(); j++) {
+            SignupRequest signupRequest = signupRequests.get(j);
+            users.add(new User(signupRequest.getEmail(), signupRequest.getLastName(), signupRequest.getFirstName(), encodedPasswords.get(j), false));
+        }
+        return users;
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static UserImportResult result(ImportRecord record, Status status, String message) {
+        return new UserImportResult(record.position, record.signupRequest.getEmail(), status, message);
+    }
+
+    private static class ImportRecord {
+        private final long position;
+
+        private final SignupRequest signupRequest;
+
+        ImportRecord(long position, SignupRequest signupRequest) {
+            this.position = position;
+            this.signupRequest = signupRequest;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordReader {
+        // null once the input is exhausted
+        ImportRecord next() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface PositionSupplier {
+        // position of the record being read
+        long get();
+    }
+}
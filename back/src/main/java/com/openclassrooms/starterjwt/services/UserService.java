@@ -1,22 +1,59 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.exception.UnknownUserException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final CacheManager cacheManager;
+
+    public UserService(UserRepository userRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
     }
 
+    /**
+     * Deletes the user, then evicts its cached principal so that its tokens are no longer accepted
+     */
     public void delete(Long id) {
+        Optional<String> email = this.userRepository.findById(id).map(User::getEmail);
         this.userRepository.deleteById(id);
+        email.ifPresent(username -> Optional.ofNullable(this.cacheManager.getCache(CacheConfig.PRINCIPALS)).ifPresent(cache -> cache.evict(username)));
     }
 
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Loads all users in a single query
+     * @return users in the order of the given ids, duplicates removed
+     * @throws UnknownUserException if at least one id does not match any user
+     */
+    public List<User> findAllById(Collection<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> usersById = this.userRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Long> unknownIds = uniqueIds.stream().filter(id -> !usersById.containsKey(id)).collect(Collectors.toList());
+        if (!unknownIds.isEmpty()) {
+            throw new UnknownUserException(unknownIds);
+        }
+
+        return uniqueIds.stream().map(usersById::get).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,5 @@
+-- seats of a session, no limit when null, and a counter of taken seats kept along with PARTICIPATE
+ALTER TABLE `SESSIONS` ADD COLUMN `capacity` INT;
+ALTER TABLE `SESSIONS` ADD COLUMN `participant_count` INT NOT NULL DEFAULT 0;
+
+UPDATE `SESSIONS` SET `participant_count` = (SELECT COUNT(DISTINCT p.`user_id`) FROM `PARTICIPATE` p WHERE p.`session_id` = `SESSIONS`.`id`);
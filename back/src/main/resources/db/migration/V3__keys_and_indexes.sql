@@ -0,0 +1,25 @@
+-- a participation is identified by its session and its user : duplicates and incomplete rows are dropped
+CREATE TABLE `PARTICIPATE_KEYED` (
+  `user_id` INT NOT NULL,
+  `session_id` INT NOT NULL,
+  PRIMARY KEY (`session_id`, `user_id`)
+);
+
+INSERT INTO `PARTICIPATE_KEYED` (`user_id`, `session_id`)
+SELECT DISTINCT `user_id`, `session_id` FROM `PARTICIPATE` WHERE `user_id` IS NOT NULL AND `session_id` IS NOT NULL;
+
+DROP TABLE `PARTICIPATE`;
+ALTER TABLE `PARTICIPATE_KEYED` RENAME TO `PARTICIPATE`;
+
+-- sessions of a user
+CREATE INDEX `IDX_PARTICIPATE_USER_ID` ON `PARTICIPATE` (`user_id`);
+
+ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
+ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
+
+-- registration relies on it to refuse an already taken email
+ALTER TABLE `USERS` ADD CONSTRAINT `UK_USERS_EMAIL` UNIQUE (`email`);
+
+-- keyset pagination of sessions on (date, id), optionally filtered by teacher
+CREATE INDEX `IDX_SESSIONS_DATE_ID` ON `SESSIONS` (`date`, `id`);
+CREATE INDEX `IDX_SESSIONS_TEACHER_DATE_ID` ON `SESSIONS` (`teacher_id`, `date`, `id`);
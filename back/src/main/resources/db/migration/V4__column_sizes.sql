@@ -0,0 +1,2 @@
+-- as long as the validation of Session allows
+ALTER TABLE `SESSIONS` MODIFY `description` VARCHAR(2500);
@@ -0,0 +1,8 @@
+-- id generators of the application, which allocates ids by blocks of 50 to batch its inserts :
+-- each one must start a full block above the ids already in use
+CREATE TABLE `TEACHERS_SEQ` (`next_val` BIGINT);
+CREATE TABLE `SESSIONS_SEQ` (`next_val` BIGINT);
+CREATE TABLE `USERS_SEQ` (`next_val` BIGINT);
+INSERT INTO `TEACHERS_SEQ` (`next_val`) SELECT COALESCE(MAX(`id`), 0) + 51 FROM `TEACHERS`;
+INSERT INTO `SESSIONS_SEQ` (`next_val`) SELECT COALESCE(MAX(`id`), 0) + 51 FROM `SESSIONS`;
+INSERT INTO `USERS_SEQ` (`next_val`) SELECT COALESCE(MAX(`id`), 0) + 51 FROM `USERS`;
@@ -0,0 +1,2 @@
+-- optimistic locking of sessions, bumped by every write including bookings and cancellations
+ALTER TABLE `SESSIONS` ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
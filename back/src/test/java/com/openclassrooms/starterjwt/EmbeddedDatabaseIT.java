@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Base of the integration tests running the whole application on an embedded database, with Hibernate statistics on.
+ * Each test starts without sessions, users nor teachers, and with empty caches.
+ * Tests needing more properties add them with @TestPropertySource, which keeps the ones declared here.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:23:12
+ */
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@Tag("Integration")
+public abstract class EmbeddedDatabaseIT {
+
+    @Autowired
+    protected SessionRepository sessionRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected TeacherRepository teacherRepository;
+
+    @Autowired
+    protected SessionService sessionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    protected Statistics statistics;
+
+    @BeforeEach
+    void resetDatabase() {
+        // sessions first, they own the participations
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    protected Teacher saveTeacher(String firstName) {
+        return teacherRepository.save(new Teacher().setFirstName(firstName).setLastName("Teacher"));
+    }
+
+    protected User saveUser(String email) {
+        return userRepository.save(new User(email, "User", "Test", "password", false));
+    }
+
+    /**
+     * @return users with emails user0@test.com to user(count - 1)@test.com
+     */
+    protected List<User> saveUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(saveUser("user" + i + "@test.com"));
+        }
+        return users;
+    }
+
+    /**
+     * Reads the join table itself, so that the check depends neither on the persistence context nor on the maintained participant count
+     */
+    protected long countParticipations(Long sessionId, Long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = ? AND user_id = ?", Long.class, sessionId, userId);
+    }
+
+    protected Session createSession(String name, Date date, Teacher teacher, User... users) {
+        return sessionService.create(new Session()
+                .setName(name)
+                .setDescription("Description")
+                .setDate(date)
+                .setTeacher(teacher)
+                .setUsers(new HashSet<>(Arrays.asList(users))));
+    }
+}
@@ -0,0 +1,98 @@
+package com.openclassrooms.starterjwt.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The wiring is checked with any executor, the virtual threads themselves need a Java 21 runtime :
+ * mvn test -Djvm=&lt;java 21 home&gt;/bin/java -Dtest=VirtualThreadConfigTest
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:21:05
+ */
+@Tag("VirtualThreadConfig")
+public class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void shouldKeepWorkerPoolByDefault() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(VirtualThreadConfig.class));
+    }
+
+    @Test
+    public void shouldHandRequestsAndStreamedResponsesToItsExecutor() {
+        ExecutorService executor = mock(ExecutorService.class);
+        VirtualThreadConfig virtualThreadConfig = new VirtualThreadConfig(executor);
+
+        ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+        virtualThreadConfig.virtualThreadsProtocolHandlerCustomizer().customize(protocolHandler);
+        verify(protocolHandler).setExecutor(executor);
+
+        AsyncSupportConfigurer configurer = mock(AsyncSupportConfigurer.class);
+        virtualThreadConfig.configureAsyncSupport(configurer);
+        ArgumentCaptor<AsyncTaskExecutor> taskExecutor = ArgumentCaptor.forClass(AsyncTaskExecutor.class);
+        verify(configurer).setTaskExecutor(taskExecutor.capture());
+        taskExecutor.getValue().execute(() -> { });
+        verify(executor).execute(any(Runnable.class));
+
+        virtualThreadConfig.destroy();
+        verify(executor).shutdown();
+    }
+
+    @Test
+    public void shouldRefuseToStartWithoutVirtualThreads() {
+        assumeFalse(virtualThreadsAvailable());
+
+        contextRunner.withPropertyValues("oc.app.virtualThreads=true")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().hasRootCauseInstanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldHandRequestsToVirtualThreads() throws Exception {
+        assumeTrue(virtualThreadsAvailable());
+
+        contextRunner.withPropertyValues("oc.app.virtualThreads=true").run(context -> {
+            ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+            context.getBean(TomcatProtocolHandlerCustomizer.class).customize(protocolHandler);
+
+            ArgumentCaptor<Executor> executor = ArgumentCaptor.forClass(Executor.class);
+            verify(protocolHandler).setExecutor(executor.capture());
+            FutureTask<Object> isVirtual = new FutureTask<>(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            executor.getValue().execute(isVirtual);
+            assertThat(isVirtual.get(5, TimeUnit.SECONDS)).isEqualTo(true);
+        });
+    }
+}
@@ -11,17 +11,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -111,6 +116,32 @@ public class AuthControllerIT {
             assertThat(response.getFirstName()).isEqualTo("Test");
             assertThat(response.getLastName()).isEqualTo("User");
         }
+
+        @Test
+        public void shouldRehashLegacyPasswordOnLogin() throws Exception {
+            LoginRequest loginRequest = new LoginRequest();
+            loginRequest.setEmail("legacy@example.com");
+            loginRequest.setPassword("abcd1234");
+
+            // hashed before encoders were prefixed
+            User user = new User()
+                    .setId(2L)
+                    .setEmail("legacy@example.com")
+                    .setPassword(new BCryptPasswordEncoder().encode("abcd1234"))
+                    .setFirstName("Legacy")
+                    .setLastName("User")
+                    .setAdmin(false);
+
+            when(userRepository.findByEmail("legacy@example.com")).thenReturn(Optional.of(user));
+
+            mockMvc.perform(post(LOGIN_URL).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(status().isOk());
+
+            ArgumentCaptor<String> newPassword = ArgumentCaptor.forClass(String.class);
+            verify(userRepository).updatePassword(eq("legacy@example.com"), newPassword.capture());
+            assertThat(newPassword.getValue()).startsWith("{bcrypt}");
+            assertThat(passwordEncoder.matches("abcd1234", newPassword.getValue())).isTrue();
+        }
     }
 
     @Nested
@@ -220,7 +251,7 @@ public class AuthControllerIT {
 
         @Test
         public void shouldReturnBadRequestWhenUserAlreadyExists() throws Exception {
-            when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+            when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("UK_USERS_EMAIL"));
 
             mockMvc.perform(post(REGISTER_URL).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(signupRequest)))
                     .andExpect(status().isBadRequest())
@@ -15,14 +15,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import java.util.Optional;
+
+import java.sql.SQLException;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -56,7 +60,6 @@ public class AuthControllerTest {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setEmail("test@example.com");
         loginRequest.setPassword("password");
-        User user = new User().setId(1L).setAdmin(true).setEmail("test@example.com").setFirstName("Test").setLastName("User");
         Authentication authentication = mock(Authentication.class);
         UserDetailsImpl userDetails = UserDetailsImpl.builder()
                 .username("test@example.com")
@@ -69,11 +72,11 @@ public class AuthControllerTest {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(authentication);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("access_token");
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
 
         ResponseEntity<?> responseEntity = authController.authenticateUser(loginRequest);
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verifyNoInteractions(userRepository);
         JwtResponse expectedResponse = new JwtResponse(
                 "access_token",
                 userDetails.getId(),
@@ -101,7 +104,6 @@ public class AuthControllerTest {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setEmail("test@example.com");
         loginRequest.setPassword("password");
-        User user = new User().setId(1L).setAdmin(false).setEmail("test@example.com").setFirstName("Test").setLastName("User");
         Authentication authentication = mock(Authentication.class);
         UserDetailsImpl userDetails = UserDetailsImpl.builder()
                 .username("test@example.com")
@@ -114,11 +116,11 @@ public class AuthControllerTest {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(authentication);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("access_token");
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
 
         ResponseEntity<?> responseEntity = authController.authenticateUser(loginRequest);
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verifyNoInteractions(userRepository);
         JwtResponse expectedResponse = new JwtResponse(
                 "access_token",
                 userDetails.getId(),
@@ -142,7 +144,7 @@ public class AuthControllerTest {
     }
 
     @Test
-    public void shouldAuthenticateNonAdminUserWhenUserIsNull() {
+    public void shouldAuthenticateNonAdminUserWhenAdminIsNull() {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setEmail("test@example.com");
         loginRequest.setPassword("password");
@@ -150,7 +152,7 @@ public class AuthControllerTest {
         UserDetailsImpl userDetails = UserDetailsImpl.builder()
                 .username("test@example.com")
                 .id(1L)
-                .admin(false)
+                .admin(null)
                 .firstName("Test")
                 .lastName("User")
                 .build();
@@ -158,18 +160,18 @@ public class AuthControllerTest {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(authentication);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("access_token");
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
 
         ResponseEntity<?> responseEntity = authController.authenticateUser(loginRequest);
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verifyNoInteractions(userRepository);
         JwtResponse expectedResponse = new JwtResponse(
                 "access_token",
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getFirstName(),
                 userDetails.getLastName(),
-                userDetails.getAdmin()
+                false
         );
 
         JwtResponse actualResponse = (JwtResponse) responseEntity.getBody();
@@ -206,12 +208,33 @@ public class AuthControllerTest {
     public void shouldDenyRegistrationWhenUserAlreadyExists() {
         SignupRequest signupRequest = new SignupRequest();
         signupRequest.setEmail("test@example.com");
+        signupRequest.setFirstName("Test");
+        signupRequest.setLastName("User");
+        signupRequest.setPassword("password");
 
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("UK_USERS_EMAIL"));
 
         ResponseEntity<?> responseEntity = authController.registerUser(signupRequest);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         MessageResponse messageResponse = (MessageResponse) responseEntity.getBody();
         assertThat(messageResponse.getMessage()).isEqualTo("Error: Email is already taken!");
     }
+
+    @Test
+    public void shouldRethrowOtherIntegrityViolationsOnRegistration() {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("test@example.com");
+        signupRequest.setFirstName("Test");
+        signupRequest.setLastName("User");
+        signupRequest.setPassword("password");
+
+        when(passwordEncoder.encode("password")).thenReturn("encoded_password");
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("Column 'first_name' cannot be null"));
+        when(userRepository.save(any(User.class))).thenThrow(violation);
+
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class, () -> authController.registerUser(signupRequest));
+        assertThat(thrown).isSameAs(violation);
+    }
 }
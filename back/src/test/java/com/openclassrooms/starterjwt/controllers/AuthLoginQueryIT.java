@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that a login loads its user with a single query
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:20:41
+ */
+
+public class AuthLoginQueryIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void shouldLoginAdminWithOneQuery() throws Exception {
+        User user = userRepository.save(new User("login-admin@test.com", "User", "Test", passwordEncoder.encode("abcd1234"), true));
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("login-admin@test.com");
+        loginRequest.setPassword("abcd1234");
+
+        statistics.clear();
+        MvcResult result = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        JwtResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), JwtResponse.class);
+        assertThat(response.getId()).isEqualTo(user.getId());
+        assertThat(response.getAdmin()).isTrue();
+    }
+}
@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends the same sign-up from many threads at once and checks that exactly one of them creates the account,
+ * the others being told that the email is already taken.
+ * Runs the whole stack, from http to an embedded database.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:21:05
+ */
+
+// a real server, and an embedded database of its own that lets the sign-up threads wait for each other's locks
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:registration;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "oc.app.bcryptStrength=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class AuthRegistrationIT extends EmbeddedDatabaseIT {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRegisterConcurrentSignUpsWithSameEmailOnce() throws Exception {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("same@test.com");
+        signupRequest.setFirstName("Test");
+        signupRequest.setLastName("User");
+        signupRequest.setPassword("abcd1234");
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            responses.add(executor.submit(() -> {
+                start.await();
+                return restTemplate.postForEntity("/api/auth/register", signupRequest, String.class);
+            }));
+        }
+        start.countDown();
+
+        int registered = 0;
+        for (Future<ResponseEntity<String>> future : responses) {
+            ResponseEntity<String> response = future.get(30, TimeUnit.SECONDS);
+            if (response.getStatusCode() == HttpStatus.OK) {
+                registered++;
+            } else {
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                assertThat(response.getBody()).contains("Error: Email is already taken!");
+            }
+        }
+
+        assertThat(registered).isEqualTo(1);
+        assertThat(userRepository.findByEmail("same@test.com")).isPresent();
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends a burst of logins, each one a slow hash, to a server with few request threads,
+ * and checks that sessions are still served while the password hashing pool is saturated.
+ * Runs the whole stack, from http to an embedded database.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:19:40
+ */
+
+// a real server with 8 request threads : one hashing thread and a queue sized from them, i.e. a single waiting hash
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:hashing;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "server.tomcat.threads.max=8",
+        "oc.app.bcryptStrength=4",
+        "oc.app.passwordHashingThreads=1",
+        "oc.app.passwordHashingTimeoutMs=30000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PasswordHashingSaturationIT extends EmbeddedDatabaseIT {
+
+    private static final int LOGINS = 16;
+
+    // about a second and a half per hash
+    private static final int SLOW_HASH_STRENGTH = 14;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ExecutorService executor;
+
+    private LoginRequest loginRequest;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("slow@test.com", "User", "Test",
+                "{bcrypt}" + new BCryptPasswordEncoder(SLOW_HASH_STRENGTH).encode("password"), false));
+        loginRequest = new LoginRequest();
+        loginRequest.setEmail(user.getEmail());
+        loginRequest.setPassword("password");
+
+        executor = Executors.newFixedThreadPool(LOGINS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldServeSessionsWhileHashingIsSaturated() throws Exception {
+        Session session = createSession("Session", new Date(), saveTeacher("Test"));
+        // also lets the authentication provider prepare its own hash before the burst
+        ResponseEntity<Map> login = restTemplate.postForEntity("/api/auth/login", loginRequest, Map.class);
+        assertThat(login.getStatusCode()).isEqualTo(HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth((String) login.getBody().get("token"));
+
+        CountDownLatch start = new CountDownLatch(1);
+        CompletionService<HttpStatus> logins = new ExecutorCompletionService<>(executor);
+        List<Future<HttpStatus>> responses = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            responses.add(logins.submit(() -> {
+                start.await();
+                return restTemplate.postForEntity("/api/auth/login", loginRequest, Void.class).getStatusCode();
+            }));
+        }
+        start.countDown();
+
+        // the first answer is a refusal : one hash is running and another one waits for it
+        assertThat(logins.take().get()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        ResponseEntity<Void> sessionResponse = restTemplate.exchange("/api/session/{id}", HttpMethod.GET, new HttpEntity<>(headers), Void.class, session.getId());
+
+        assertThat(sessionResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responses).anyMatch(response -> !response.isDone());
+
+        List<HttpStatus> statuses = new ArrayList<>();
+        for (Future<HttpStatus> response : responses) {
+            statuses.add(response.get(60, TimeUnit.SECONDS));
+        }
+        assertThat(statuses).containsOnly(HttpStatus.OK, HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSizeBetween(1, 2);
+    }
+}
@@ -0,0 +1,114 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that the streamed listings hold the same sessions and teachers as the regular ones,
+ * sessions being read over several pages
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:22:25
+ */
+
+@TestPropertySource(properties = {
+        "oc.app.sessionStreamPageSize=2"
+})
+public class ReactiveReadIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+        saveTeacher("Other");
+        User user = saveUser("user@test.com");
+        for (int i = 0; i < 5; i++) {
+            User[] participants = i % 2 == 0 ? new User[]{user} : new User[0];
+            createSession("Session " + i, new Date(System.currentTimeMillis() + i * 60_000L), teacher, participants);
+        }
+    }
+
+    private <T> List<T> stream(String url, MediaType mediaType, Class<T> type) throws Exception {
+        MvcResult started = mockMvc.perform(get(url).accept(mediaType))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsString();
+
+        List<T> values = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (line.startsWith("data:")) {
+                line = line.substring("data:".length());
+            }
+            if (!line.trim().isEmpty()) {
+                values.add(objectMapper.readValue(line, type));
+            }
+        }
+        return values;
+    }
+
+    @Test
+    public void shouldDenyStreamsWhenUserNotAuthenticated() throws Exception {
+        mockMvc.perform(get("/api/session/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/teacher/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldStreamSessionsInListingOrderAcrossPages() throws Exception {
+        List<SessionDto> streamed = stream("/api/session/stream", MediaType.APPLICATION_NDJSON, SessionDto.class);
+
+        assertThat(streamed).extracting(SessionDto::getName)
+                .containsExactly("Session 0", "Session 1", "Session 2", "Session 3", "Session 4");
+        assertThat(streamed).extracting(sessionDto -> sessionDto.getUsers().size()).containsExactly(1, 0, 1, 0, 1);
+        assertThat(streamed).allSatisfy(sessionDto -> assertThat(sessionDto.getTeacher_id()).isEqualTo(teacher.getId()));
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldStreamSessionsAsServerSentEvents() throws Exception {
+        List<SessionDto> streamed = stream("/api/session/stream", MediaType.TEXT_EVENT_STREAM, SessionDto.class);
+
+        assertThat(streamed).hasSize(5);
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldStreamTeachers() throws Exception {
+        List<TeacherDto> streamed = stream("/api/teacher/stream", MediaType.APPLICATION_NDJSON, TeacherDto.class);
+
+        assertThat(streamed).extracting(TeacherDto::getFirstName).containsExactlyInAnyOrder("Test", "Other");
+    }
+}
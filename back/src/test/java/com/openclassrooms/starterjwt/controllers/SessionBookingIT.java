@@ -0,0 +1,165 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers the participation endpoint from many threads at once, the way a popular class gets booked
+ * as soon as it opens, and checks that a session is never overbooked nor booked twice by the same user.
+ * Runs the whole stack, from http to an embedded database.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:16:35
+ */
+
+// a real server, and an embedded database of its own that lets the booking threads wait for each other's locks
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SessionBookingIT extends EmbeddedDatabaseIT {
+
+    private static final int THREADS = 32;
+
+    private static final int USERS = 60;
+
+    private static final int CAPACITY = 10;
+
+    @Value("${oc.app.jwtSecret}")
+    private String jwtSecret;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ExecutorService executor;
+
+    private HttpEntity<Void> authenticated;
+
+    private Teacher teacher;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+        users = saveUsers(USERS);
+
+        String token = Jwts.builder()
+                .setSubject(users.get(0).getEmail())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        authenticated = new HttpEntity<>(headers);
+
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private Session createSession(Integer capacity) {
+        return sessionService.create(new Session()
+                .setName("Popular session")
+                .setDescription("Opens at 8am")
+                .setDate(new Date())
+                .setCapacity(capacity)
+                .setTeacher(teacher)
+                .setUsers(new HashSet<>()));
+    }
+
+    /**
+     * Sends all requests at the same time and collects the response statuses
+     */
+    private List<HttpStatus> hammer(Long sessionId, List<Long> userIds) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatus>> responses = new ArrayList<>();
+        for (Long userId : userIds) {
+            responses.add(executor.submit(() -> {
+                start.await();
+                return restTemplate.exchange("/api/session/{id}/participate/{userId}", HttpMethod.POST, authenticated, Void.class, sessionId, userId)
+                        .getStatusCode();
+            }));
+        }
+        start.countDown();
+
+        List<HttpStatus> statuses = new ArrayList<>();
+        for (Future<HttpStatus> response : responses) {
+            statuses.add(response.get(60, TimeUnit.SECONDS));
+        }
+        return statuses;
+    }
+
+    private void assertBookings(Long sessionId, int expected) {
+        List<Long> participantIds = sessionService.findParticipantIds(Collections.singletonList(sessionId))
+                .getOrDefault(sessionId, Collections.emptyList());
+        assertThat(participantIds).hasSize(expected).doesNotHaveDuplicates();
+        assertThat(sessionRepository.findById(sessionId).map(Session::getParticipantCount)).contains(expected);
+    }
+
+    @Test
+    public void shouldNeverOverbookUnderContention() throws Exception {
+        Session session = createSession(CAPACITY);
+        List<Long> userIds = new ArrayList<>();
+        // every user tries twice
+        for (User user : users) {
+            userIds.add(user.getId());
+            userIds.add(user.getId());
+        }
+        Collections.shuffle(userIds);
+
+        List<HttpStatus> statuses = hammer(session.getId(), userIds);
+
+        assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(CAPACITY);
+        assertThat(statuses).filteredOn(status -> status != HttpStatus.OK).isSubsetOf(HttpStatus.CONFLICT, HttpStatus.BAD_REQUEST);
+        assertBookings(session.getId(), CAPACITY);
+    }
+
+    @Test
+    public void shouldBookEachUserOnceUnderContention() throws Exception {
+        Session session = createSession(null);
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            for (User user : users) {
+                userIds.add(user.getId());
+            }
+        }
+        Collections.shuffle(userIds);
+
+        List<HttpStatus> statuses = hammer(session.getId(), userIds);
+
+        assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(USERS);
+        assertThat(statuses).filteredOn(status -> status != HttpStatus.OK).containsOnly(HttpStatus.BAD_REQUEST);
+        assertBookings(session.getId(), USERS);
+    }
+}
@@ -0,0 +1,175 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that unchanged sessions are answered with a 304 after a single aggregate query,
+ * and that every kind of session change is seen by the validators
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:00:21
+ */
+
+public class SessionConditionalGetIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Teacher teacher;
+
+    private Session session;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+        user = saveUser("user@test.com");
+        session = createSession("Session");
+    }
+
+    private Session createSession(String name) {
+        return createSession(name, new Date(), teacher);
+    }
+
+    /**
+     * Runs the change, then puts the modification date of the session back,
+     * as when both fall within the same second on MySQL or the clocks of the JVM and the database disagree
+     */
+    private void changeWithinSameSecond(Runnable change) {
+        Timestamp updatedAt = jdbcTemplate.queryForObject("SELECT updated_at FROM SESSIONS WHERE id = ?", Timestamp.class, session.getId());
+        change.run();
+        jdbcTemplate.update("UPDATE SESSIONS SET updated_at = ? WHERE id = ?", updatedAt, session.getId());
+    }
+
+    private String etag(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void expectNotModified(String url, String etag) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        // only the aggregate query, the sessions are not loaded
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private void expectModified(String url, String etag) throws Exception {
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldAnswerNotModifiedForUnchangedSession() throws Exception {
+        String url = "/api/session/" + session.getId();
+
+        expectNotModified(url, etag(url));
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldAnswerNotModifiedForUnchangedListing() throws Exception {
+        String etag = etag("/api/session");
+        assertThat(etag).startsWith("W/");
+
+        expectNotModified("/api/session", etag);
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldHonourIfModifiedSince() throws Exception {
+        String lastModified = mockMvc.perform(get("/api/session/" + session.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(get("/api/session/" + session.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldChangeValidatorsWhenParticipationChanges() throws Exception {
+        String url = "/api/session/" + session.getId();
+        String sessionEtag = etag(url);
+        String listingEtag = etag("/api/session");
+
+        changeWithinSameSecond(() -> sessionService.participate(session.getId(), user.getId()));
+
+        expectModified(url, sessionEtag);
+        expectModified("/api/session", listingEtag);
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldChangeListingValidatorWhenSessionIsAddedOrRemoved() throws Exception {
+        String listingEtag = etag("/api/session");
+
+        Session other = createSession("Other");
+        expectModified("/api/session", listingEtag);
+
+        listingEtag = etag("/api/session");
+        sessionService.delete(other.getId());
+        expectModified("/api/session", listingEtag);
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldChangeListingValidatorWhenSessionIsReplaced() throws Exception {
+        Session other = createSession("Other");
+        String listingEtag = etag("/api/session");
+
+        // same count, same versions
+        sessionService.delete(other.getId());
+        createSession("Replacement");
+
+        expectModified("/api/session", listingEtag);
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldChangeValidatorsWhenSessionIsUpdated() throws Exception {
+        String url = "/api/session/" + session.getId();
+        String sessionEtag = etag(url);
+
+        String listingEtag = etag("/api/session");
+
+        changeWithinSameSecond(() -> sessionService.update(session.getId(), session.setName("Renamed").setUsers(new HashSet<>(Collections.singletonList(user))), null));
+
+        expectModified(url, sessionEtag);
+        expectModified("/api/session", listingEtag);
+    }
+}
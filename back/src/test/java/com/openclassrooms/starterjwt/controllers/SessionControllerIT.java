@@ -7,7 +7,9 @@ import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionBookingRepository.Booking;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionStamp;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import org.junit.jupiter.api.Nested;
@@ -22,11 +24,14 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import java.time.LocalDateTime;
 import java.util.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -61,6 +66,30 @@ public class SessionControllerIT {
     @Autowired
     private SessionMapper sessionMapper;
 
+    private static SessionStamp stamp(long count) {
+        return new SessionStamp() {
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public Long getLastId() {
+                return count > 0 ? count : null;
+            }
+
+            @Override
+            public Long getVersion() {
+                return count > 0 ? 0L : null;
+            }
+
+            @Override
+            public LocalDateTime getLastModified() {
+                return null;
+            }
+        };
+    }
+
     @Nested
     class SessionControllerGetIT {
 
@@ -89,6 +118,7 @@ public class SessionControllerIT {
             session2.setName("Session 2");
 
             List<Session> sessions = Arrays.asList(session1, session2);
+            when(sessionRepository.findStamp()).thenReturn(stamp(2));
             when(sessionRepository.findAll()).thenReturn(sessions);
 
             mockMvc.perform(get("/api/session").contentType(MediaType.APPLICATION_JSON))
@@ -101,6 +131,31 @@ public class SessionControllerIT {
             ;
         }
 
+        @Test
+        @WithMockUser(roles = {"ADMIN"})
+        public void shouldGetFirstPageOfSessions() throws Exception {
+            Date date = new Date();
+            Session session1 = new Session().setId(1L).setName("Session 1").setDate(date);
+            Session session2 = new Session().setId(2L).setName("Session 2").setDate(date);
+            Session session3 = new Session().setId(3L).setName("Session 3").setDate(date);
+
+            when(sessionRepository.findFirstPage(any(), any(), any(), any())).thenReturn(Arrays.asList(session1, session2, session3));
+
+            mockMvc.perform(get("/api/session?size=2").contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("sessions", hasSize(2)))
+                    .andExpect(jsonPath("sessions[0].id").value(session1.getId()))
+                    .andExpect(jsonPath("sessions[1].id").value(session2.getId()))
+                    .andExpect(jsonPath("nextCursor").isNotEmpty());
+        }
+
+        @Test
+        @WithMockUser(roles = {"ADMIN"})
+        public void shouldReturnBadRequestWhenPageCursorInvalid() throws Exception {
+            mockMvc.perform(get("/api/session?size=2&cursor=invalid!").contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+        }
+
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldGetASessionByItsId() throws Exception {
@@ -108,6 +163,7 @@ public class SessionControllerIT {
             session.setId(1L);
             session.setName("Session 1");
 
+            when(sessionRepository.findStampById(1L)).thenReturn(stamp(1));
             when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
 
             mockMvc.perform(get("/api/session/1").contentType(MediaType.APPLICATION_JSON))
@@ -119,7 +175,7 @@ public class SessionControllerIT {
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldReturnNotFountWhenSessionNotFound() throws Exception {
-            when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
+            when(sessionRepository.findStampById(1L)).thenReturn(stamp(0));
 
             mockMvc.perform(get("/api/session/1").contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isNotFound());
@@ -159,6 +215,24 @@ public class SessionControllerIT {
             assertThat(createdSession.getId()).isEqualTo(session.getId());
         }
 
+        @Test
+        @WithMockUser(roles = {"ADMIN"})
+        public void shouldNotCreateSessionWhenUsersUnknown() throws Exception {
+            SessionDto sessionDto = new SessionDto();
+            sessionDto.setName("New Session");
+            sessionDto.setDate(new Date());
+            sessionDto.setTeacher_id(1L);
+            sessionDto.setDescription("Session Description");
+            sessionDto.setUsers(Arrays.asList(1L, 2L));
+
+            when(teacherRepository.findById(anyLong())).thenReturn(Optional.of(new Teacher().setId(1L)));
+            when(userRepository.findAllById(any())).thenReturn(Collections.singletonList(new User().setId(1L)));
+
+            mockMvc.perform(post("/api/session").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(sessionDto)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("message").value("Error: Unknown user(s): 2"));
+        }
+
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldNotCreateSessionWhenBodyNotValid() throws Exception {
@@ -220,8 +294,8 @@ public class SessionControllerIT {
             savedSession.setTeacher(new Teacher().setId(2L));
 
             when(teacherRepository.findById(1L)).thenAnswer(args -> Optional.of(new Teacher().setId(args.getArgument(0))));
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-            when(sessionRepository.save(any(Session.class))).thenReturn(savedSession);
+            when(sessionRepository.update(any(Session.class), isNull())).thenReturn(true);
+            when(sessionRepository.findById(1L)).thenReturn(Optional.of(savedSession));
 
             MvcResult result = mockMvc.perform(put("/api/session/1").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(sessionDto)))
                     .andExpect(status().isOk())
@@ -282,6 +356,7 @@ public class SessionControllerIT {
             session.setName("Session 1");
 
             when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+            when(sessionRepository.remove(1L)).thenReturn(true);
 
             mockMvc.perform(delete("/api/session/1"))
                     .andExpect(status().isOk());
@@ -307,12 +382,8 @@ public class SessionControllerIT {
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldReturnNotFoundOnParticipateWhenUserNotFound() throws Exception {
-            Session session = new Session();
-            session.setId(1L);
-            session.setName("Session 1");
-
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-            when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(userRepository.existsById(anyLong())).thenReturn(false);
 
             mockMvc.perform(post("/api/session/1/participate/2"))
                     .andExpect(status().isNotFound());
@@ -321,11 +392,8 @@ public class SessionControllerIT {
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldReturnNotFoundOnParticipateWhenSessionNotFound() throws Exception {
-            User user = new User();
-            user.setId(1L);
-
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
-            when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+            when(sessionRepository.existsById(anyLong())).thenReturn(false);
+            when(userRepository.existsById(2L)).thenReturn(true);
 
             mockMvc.perform(post("/api/session/1/participate/2"))
                     .andExpect(status().isNotFound());
@@ -334,37 +402,36 @@ public class SessionControllerIT {
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldParticipate() throws Exception {
-            Session session = new Session();
-            session.setId(1L);
-            session.setName("Session 1");
-            session.setUsers(new ArrayList<>());
-
-            User user = new User();
-            user.setId(1L);
-
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-            when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(userRepository.existsById(2L)).thenReturn(true);
+            when(sessionRepository.book(1L, 2L)).thenReturn(Booking.BOOKED);
 
             mockMvc.perform(post("/api/session/1/participate/2"))
                     .andExpect(status().isOk());
+
+            verify(sessionRepository).book(1L, 2L);
         }
 
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldReturnBadRequestOnParticipateIfAlreadyParticipates() throws Exception {
-            User user = new User();
-            user.setId(2L);
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(userRepository.existsById(2L)).thenReturn(true);
+            when(sessionRepository.book(1L, 2L)).thenReturn(Booking.ALREADY_BOOKED);
 
-            Session session = new Session();
-            session.setId(1L);
-            session.setName("Session 1");
-            session.setUsers(Collections.singletonList(user));
+            mockMvc.perform(post("/api/session/1/participate/2"))
+                    .andExpect(status().isBadRequest());
+        }
 
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-            when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+        @Test
+        @WithMockUser(roles = {"ADMIN"})
+        public void shouldReturnConflictOnParticipateIfSessionFull() throws Exception {
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(userRepository.existsById(2L)).thenReturn(true);
+            when(sessionRepository.book(1L, 2L)).thenReturn(Booking.FULL);
 
             mockMvc.perform(post("/api/session/1/participate/2"))
-                    .andExpect(status().isBadRequest());
+                    .andExpect(status().isConflict());
         }
     }
 
@@ -387,11 +454,7 @@ public class SessionControllerIT {
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldReturnNotFoundOnUnparticipateWhenSessionNotFound() throws Exception {
-            User user = new User();
-            user.setId(1L);
-
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
-            when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+            when(sessionRepository.existsById(anyLong())).thenReturn(false);
 
             mockMvc.perform(delete("/api/session/1/participate/2"))
                     .andExpect(status().isNotFound());
@@ -400,17 +463,8 @@ public class SessionControllerIT {
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldUnparticipate() throws Exception {
-            User user = new User();
-            user.setId(2L);
-
-            Session session = new Session();
-            session.setId(1L);
-            session.setName("Session 1");
-            session.setUsers(Collections.singletonList(user));
-
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-            when(userRepository.findById(2L)).thenReturn(Optional.of(user));
-
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.cancel(1L, 2L)).thenReturn(true);
 
             mockMvc.perform(delete("/api/session/1/participate/2"))
                     .andExpect(status().isOk());
@@ -419,16 +473,8 @@ public class SessionControllerIT {
         @Test
         @WithMockUser(roles = {"ADMIN"})
         public void shouldReturnBadRequestOnUnparticipateIfNoParticipationFound() throws Exception {
-            Session session = new Session();
-            session.setId(1L);
-            session.setName("Session 1");
-            session.setUsers(new ArrayList<>());
-
-            User user = new User();
-            user.setId(1L);
-
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-            when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.cancel(1L, 2L)).thenReturn(false);
 
             mockMvc.perform(delete("/api/session/1/participate/2"))
                     .andExpect(status().isBadRequest());
@@ -1,24 +1,53 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPageDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.StaleSessionException;
+import com.openclassrooms.starterjwt.exception.UnknownUserException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import com.openclassrooms.starterjwt.repository.SessionStamp;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.SessionCursor;
 import com.openclassrooms.starterjwt.services.SessionService;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.function.Consumer;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -39,6 +68,43 @@ public class SessionControllerTest {
     @Mock
     private SessionMapper sessionMapper;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    private static final long UPDATED_AT_MILLIS = UPDATED_AT.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    private static final String ETAG = "\"7\"";
+
+    private static SessionStamp stamp(long count, LocalDateTime lastModified) {
+        return new SessionStamp() {
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public Long getLastId() {
+                return count > 0 ? 12L : null;
+            }
+
+            @Override
+            public Long getVersion() {
+                return count > 0 ? 7L : null;
+            }
+
+            @Override
+            public LocalDateTime getLastModified() {
+                return lastModified;
+            }
+        };
+    }
+
+    private static WebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/session"), new MockHttpServletResponse());
+    }
+
     @Nested
     class SessionControllerFindTest {
         @Test
@@ -49,27 +115,45 @@ public class SessionControllerTest {
             SessionDto sessionDto = new SessionDto();
             sessionDto.setId(1L);
 
+            when(sessionService.getStamp(1L)).thenReturn(stamp(1, UPDATED_AT));
             when(sessionService.getById(1L)).thenReturn(session);
             when(sessionMapper.toDto(session)).thenReturn(sessionDto);
 
-            ResponseEntity<?> responseEntity = sessionController.findById("1");
+            ResponseEntity<?> responseEntity = sessionController.findById("1", webRequest());
 
             assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
             assertThat(responseEntity.getBody()).isSameAs(sessionDto);
+            assertThat(responseEntity.getHeaders().getETag()).isEqualTo(ETAG);
+            assertThat(responseEntity.getHeaders().getLastModified()).isEqualTo(UPDATED_AT_MILLIS);
+        }
+
+        @Test
+        public void shouldNotLoadSessionWhenNotModified() {
+            when(sessionService.getStamp(1L)).thenReturn(stamp(1, UPDATED_AT));
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session/1");
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            ResponseEntity<?> responseEntity = sessionController.findById("1", new ServletWebRequest(request, response));
+
+            assertThat(responseEntity).isNull();
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+            verify(sessionService, never()).getById(anyLong());
+            verifyNoInteractions(sessionMapper);
         }
 
         @Test
         public void shouldReturnBadRequestWhenBadIdFormat() {
-            ResponseEntity<?> responseEntity = sessionController.findById("badId1");
+            ResponseEntity<?> responseEntity = sessionController.findById("badId1", webRequest());
 
             assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         }
 
         @Test
         public void shouldReturnNotFoundWhenNotFound() {
-            when(sessionService.getById(1L)).thenReturn(null);
+            when(sessionService.getStamp(1L)).thenReturn(stamp(0, null));
 
-            ResponseEntity<?> responseEntity = sessionController.findById("1");
+            ResponseEntity<?> responseEntity = sessionController.findById("1", webRequest());
 
             assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         }
@@ -90,13 +174,73 @@ public class SessionControllerTest {
 
             List<SessionDto> sessionDtos = Arrays.asList(sessionDto1, sessionDto2);
 
+            when(sessionService.getStamp()).thenReturn(stamp(2, null));
             when(sessionService.findAll()).thenReturn(sessions);
             when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
 
-            ResponseEntity<?> responseEntity = sessionController.findAll();
+            ResponseEntity<?> responseEntity = sessionController.findAll(webRequest());
 
             assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
             assertThat(responseEntity.getBody()).isSameAs(sessionDtos);
+            assertThat(responseEntity.getHeaders().getETag()).isEqualTo("W/\"2-12-7\"");
+            assertThat(responseEntity.getHeaders().containsKey(HttpHeaders.LAST_MODIFIED)).isFalse();
+        }
+
+        @Test
+        public void shouldFindAllSummaries() {
+            List<SessionSummary> summaries = Collections.singletonList(mock(SessionSummary.class));
+            List<SessionSummaryDto> summaryDtos = Collections.singletonList(new SessionSummaryDto(1L, "Test session", new Date(), 2L, 20, 12));
+
+            when(sessionService.findAllSummaries()).thenReturn(summaries);
+            when(sessionMapper.toSummaryDto(summaries)).thenReturn(summaryDtos);
+
+            ResponseEntity<?> responseEntity = sessionController.findAllSummaries();
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(responseEntity.getBody()).isSameAs(summaryDtos);
+        }
+
+        @Test
+        public void shouldReturnBadRequestWhenPageSizeInvalid() {
+            assertThat(sessionController.findPage(0, null, null, null, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(sessionController.findPage(101, null, null, null, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+
+        @Test
+        public void shouldFindLastPageWithoutNextCursor() {
+            List<Session> sessions = Collections.singletonList(new Session().setId(1L).setDate(new Date()));
+            List<SessionDto> sessionDtos = Collections.singletonList(new SessionDto());
+
+            when(sessionService.findPage(null, null, null, null, 3)).thenReturn(sessions);
+            when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+
+            ResponseEntity<?> responseEntity = sessionController.findPage(2, null, null, null, null);
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            SessionPageDto page = (SessionPageDto) responseEntity.getBody();
+            assertThat(page).isNotNull();
+            assertThat(page.getSessions()).isSameAs(sessionDtos);
+            assertThat(page.getNextCursor()).isNull();
+        }
+
+        @Test
+        public void shouldFindPageWithNextCursor() {
+            Date date = new Date(1700000000000L);
+            Session session1 = new Session().setId(1L).setDate(date);
+            Session session2 = new Session().setId(2L).setDate(date);
+            Session session3 = new Session().setId(3L).setDate(date);
+            SessionCursor cursor = new SessionCursor(new Date(1600000000000L), 9L);
+
+            when(sessionService.findPage(cursor, 4L, null, null, 3)).thenReturn(Arrays.asList(session1, session2, session3));
+            when(sessionMapper.toDto(anyList())).thenAnswer(i -> Arrays.asList(new SessionDto(), new SessionDto()));
+
+            ResponseEntity<?> responseEntity = sessionController.findPage(2, cursor.encode(), 4L, null, null);
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            SessionPageDto page = (SessionPageDto) responseEntity.getBody();
+            assertThat(page).isNotNull();
+            assertThat(page.getSessions()).hasSize(2);
+            assertThat(SessionCursor.decode(page.getNextCursor())).isEqualTo(SessionCursor.of(session2));
         }
     }
 
@@ -125,6 +269,19 @@ public class SessionControllerTest {
             assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
             assertThat(responseEntity.getBody()).isSameAs(responseSessionDto);
         }
+
+        @Test
+        public void shouldReturnBadRequestWhenUnknownUsers() {
+            SessionDto requestSessionDto = new SessionDto();
+            requestSessionDto.setUsers(Arrays.asList(1L, 2L));
+
+            when(sessionMapper.toEntity(requestSessionDto)).thenThrow(new UnknownUserException(Collections.singletonList(2L)));
+
+            ResponseEntity<?> responseEntity = sessionController.create(requestSessionDto);
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(((MessageResponse) responseEntity.getBody()).getMessage()).isEqualTo("Error: Unknown user(s): 2");
+        }
     }
 
     @Nested
@@ -134,7 +291,7 @@ public class SessionControllerTest {
             SessionDto requestSessionDto = new SessionDto();
             requestSessionDto.setName("Updated test session");
 
-            ResponseEntity<?> responseEntity = sessionController.update("badId1", requestSessionDto);
+            ResponseEntity<?> responseEntity = sessionController.update("badId1", null, requestSessionDto);
 
             assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         }
@@ -153,15 +310,147 @@ public class SessionControllerTest {
             responseSessionDto.setTeacher_id(session.getTeacher().getId());
             responseSessionDto.setCreatedAt(session.getCreatedAt());
 
-            when(sessionService.update(1L, session)).thenReturn(session);
+            when(sessionService.update(1L, session, null)).thenReturn(session);
             when(sessionMapper.toEntity(requestSessionDto)).thenReturn(session);
             when(sessionMapper.toDto(session)).thenReturn(responseSessionDto);
 
-            ResponseEntity<?> responseEntity = sessionController.update("1", requestSessionDto);
+            ResponseEntity<?> responseEntity = sessionController.update("1", null, requestSessionDto);
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(responseEntity.getBody()).isSameAs(responseSessionDto);
+        }
+
+        @Test
+        public void shouldUpdateSessionAtIfMatchVersion() {
+            SessionDto requestSessionDto = new SessionDto();
+            requestSessionDto.setVersion(1L);
+            Session session = new Session().setId(1L);
+            Session updated = new Session().setId(1L).setVersion(5L);
+            SessionDto responseSessionDto = new SessionDto();
+
+            when(sessionMapper.toEntity(requestSessionDto)).thenReturn(session);
+            when(sessionService.update(1L, session, 4L)).thenReturn(updated);
+            when(sessionMapper.toDto(updated)).thenReturn(responseSessionDto);
+
+            ResponseEntity<?> responseEntity = sessionController.update("1", "\"4\"", requestSessionDto);
 
             assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"5\"");
             assertThat(responseEntity.getBody()).isSameAs(responseSessionDto);
         }
+
+        @Test
+        public void shouldReturnPreconditionFailedWhenIfMatchIsStale() {
+            SessionDto requestSessionDto = new SessionDto();
+            Session session = new Session();
+
+            when(sessionMapper.toEntity(requestSessionDto)).thenReturn(session);
+            when(sessionService.update(1L, session, 4L)).thenThrow(new StaleSessionException());
+
+            ResponseEntity<?> responseEntity = sessionController.update("1", "\"4\"", requestSessionDto);
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        }
+
+        @Test
+        public void shouldReturnPreconditionFailedWhenIfMatchIsWeak() {
+            SessionDto requestSessionDto = new SessionDto();
+            Session session = new Session();
+
+            when(sessionMapper.toEntity(requestSessionDto)).thenReturn(session);
+            // no session is ever at that version
+            when(sessionService.update(1L, session, -1L)).thenThrow(new StaleSessionException());
+
+            ResponseEntity<?> responseEntity = sessionController.update("1", "W/\"4\"", requestSessionDto);
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        }
+
+        @Test
+        public void shouldLetConflictThroughWhenBodyVersionIsStale() {
+            SessionDto requestSessionDto = new SessionDto();
+            requestSessionDto.setVersion(2L);
+            Session session = new Session();
+
+            when(sessionMapper.toEntity(requestSessionDto)).thenReturn(session);
+            when(sessionService.update(1L, session, 2L)).thenThrow(new StaleSessionException());
+
+            assertThrows(StaleSessionException.class, () -> sessionController.update("1", null, requestSessionDto));
+        }
+
+        @Test
+        public void shouldReturnBadRequestWhenUnknownUsers() {
+            SessionDto requestSessionDto = new SessionDto();
+            requestSessionDto.setUsers(Collections.singletonList(3L));
+
+            when(sessionMapper.toEntity(requestSessionDto)).thenThrow(new UnknownUserException(Collections.singletonList(3L)));
+
+            ResponseEntity<?> responseEntity = sessionController.update("1", null, requestSessionDto);
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(((MessageResponse) responseEntity.getBody()).getMessage()).isEqualTo("Error: Unknown user(s): 3");
+        }
+    }
+
+    @Nested
+    class SessionControllerPatchTest {
+        @Test
+        @SuppressWarnings("unchecked")
+        public void shouldPatchGivenFields() throws Exception {
+            Session session = new Session().setId(1L).setName("Session").setVersion(2L);
+            Session patched = new Session().setId(1L).setVersion(3L);
+            SessionDto responseSessionDto = new SessionDto();
+            ArgumentCaptor<Consumer<Session>> patch = ArgumentCaptor.forClass(Consumer.class);
+
+            when(sessionService.patch(eq(1L), patch.capture(), eq(2L))).thenReturn(patched);
+            when(sessionMapper.toDto(patched)).thenReturn(responseSessionDto);
+
+            ResponseEntity<?> responseEntity = sessionController.patch("1", "\"2\"", objectMapper.readTree("{\"name\": \"Renamed\", \"capacity\": null}"));
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"3\"");
+            assertThat(responseEntity.getBody()).isSameAs(responseSessionDto);
+
+            patch.getValue().accept(session);
+            ArgumentCaptor<SessionDto> values = ArgumentCaptor.forClass(SessionDto.class);
+            verify(sessionMapper).patch(eq(session), values.capture(), eq(new HashSet<>(Arrays.asList("name", "capacity"))));
+            assertThat(values.getValue().getName()).isEqualTo("Renamed");
+        }
+
+        @Test
+        public void shouldUseBodyVersionWithoutIfMatch() throws Exception {
+            Session patched = new Session().setId(1L).setVersion(5L);
+            when(sessionService.patch(eq(1L), any(), eq(4L))).thenReturn(patched);
+
+            ResponseEntity<?> responseEntity = sessionController.patch("1", null, objectMapper.readTree("{\"name\": \"Renamed\", \"version\": 4}"));
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+
+        @Test
+        public void shouldReturnBadRequestWhenPatchIsNotAnObject() throws Exception {
+            ResponseEntity<?> responseEntity = sessionController.patch("1", null, objectMapper.readTree("[]"));
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            verifyNoInteractions(sessionService);
+        }
+
+        @Test
+        public void shouldReturnBadRequestWhenPatchValueHasWrongType() throws Exception {
+            ResponseEntity<?> responseEntity = sessionController.patch("1", null, objectMapper.readTree("{\"capacity\": \"many\"}"));
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            verifyNoInteractions(sessionService);
+        }
+
+        @Test
+        public void shouldReturnPreconditionFailedWhenPatchIfMatchIsStale() throws Exception {
+            when(sessionService.patch(eq(1L), any(), eq(2L))).thenThrow(new StaleSessionException());
+
+            ResponseEntity<?> responseEntity = sessionController.patch("1", "\"2\"", objectMapper.readTree("{\"name\": \"Renamed\"}"));
+
+            assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        }
     }
 
     @Nested
@@ -0,0 +1,136 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deletes a session while its participants are joining and leaving it, and checks that every request
+ * gets a regular answer and that nothing of the session is left behind.
+ * Runs the whole stack, from http to an embedded database.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:19:05
+ */
+
+// a real server, and an embedded database of its own that lets the request threads wait for each other's locks
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:deletion;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SessionDeletionIT extends EmbeddedDatabaseIT {
+
+    private static final int THREADS = 32;
+
+    private static final int PARTICIPANTS = 10;
+
+    private static final int NEWCOMERS = 30;
+
+    // each round is a new race, the deletion landing at a different point of the bookings
+    private static final int ROUNDS = 5;
+
+    @Value("${oc.app.jwtSecret}")
+    private String jwtSecret;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ExecutorService executor;
+
+    private HttpEntity<Void> authenticated;
+
+    private Teacher teacher;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+        users = saveUsers(PARTICIPANTS + NEWCOMERS);
+
+        String token = Jwts.builder()
+                .setSubject(users.get(0).getEmail())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        authenticated = new HttpEntity<>(headers);
+
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private Callable<HttpStatus> request(CountDownLatch start, HttpMethod method, String url, Object... uriVariables) {
+        return () -> {
+            start.await();
+            return restTemplate.exchange(url, method, authenticated, Void.class, uriVariables).getStatusCode();
+        };
+    }
+
+    @Test
+    public void shouldDeleteSessionWhileItIsBeingBooked() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Session session = createSession("Session " + round, new Date(), teacher, users.subList(0, PARTICIPANTS).toArray(new User[0]));
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Callable<HttpStatus>> participations = new ArrayList<>();
+            for (User user : users.subList(0, PARTICIPANTS)) {
+                participations.add(request(start, HttpMethod.DELETE, "/api/session/{id}/participate/{userId}", session.getId(), user.getId()));
+            }
+            for (User user : users.subList(PARTICIPANTS, users.size())) {
+                participations.add(request(start, HttpMethod.POST, "/api/session/{id}/participate/{userId}", session.getId(), user.getId()));
+            }
+            Collections.shuffle(participations);
+
+            // the deletion is queued among the first requests, at a different place every round
+            Future<HttpStatus> deletion = null;
+            List<Future<HttpStatus>> participationResponses = new ArrayList<>();
+            for (int i = 0; i < participations.size(); i++) {
+                if (i == round * THREADS / ROUNDS) {
+                    deletion = executor.submit(request(start, HttpMethod.DELETE, "/api/session/{id}", session.getId()));
+                }
+                participationResponses.add(executor.submit(participations.get(i)));
+            }
+            start.countDown();
+
+            assertThat(deletion.get(60, TimeUnit.SECONDS)).isEqualTo(HttpStatus.OK);
+            for (Future<HttpStatus> response : participationResponses) {
+                // done before the deletion, or refused because the session is gone
+                assertThat(response.get(60, TimeUnit.SECONDS)).isIn(HttpStatus.OK, HttpStatus.NOT_FOUND, HttpStatus.BAD_REQUEST);
+            }
+            assertThat(sessionRepository.existsById(session.getId())).isFalse();
+            assertThat(sessionService.findParticipantIds(Collections.singletonList(session.getId()))).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that the streamed export holds the same sessions as the regular listing
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:22:31
+ */
+
+@TestPropertySource(properties = {
+        "oc.app.sessionExportFetchSize=2"
+})
+public class SessionExportIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        Teacher teacher = saveTeacher("Test");
+        List<User> users = saveUsers(3);
+        for (int i = 0; i < 3; i++) {
+            sessionService.create(new Session()
+                    .setName("Session " + i)
+                    .setDescription("Description " + i)
+                    .setDate(new Date())
+                    .setCapacity(i == 0 ? null : 10)
+                    .setTeacher(teacher)
+                    .setUsers(new HashSet<>(users.subList(0, i + 1 == 3 ? 0 : i + 1))));
+        }
+    }
+
+    @Test
+    public void shouldDenyExportWhenUserNotAuthenticated() throws Exception {
+        mockMvc.perform(get("/api/session/export"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldExportSameSessionsAsListing() throws Exception {
+        List<SessionDto> listed = objectMapper.readValue(mockMvc.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), new TypeReference<List<SessionDto>>() {});
+
+        MvcResult started = mockMvc.perform(get("/api/session/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<SessionDto> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            exported.add(objectMapper.readValue(line, SessionDto.class));
+        }
+
+        // participants come in id order in the export only
+        listed.forEach(sessionDto -> Collections.sort(sessionDto.getUsers()));
+        assertThat(exported).hasSize(3);
+        assertThat(exported).extracting(SessionDto::getId).isSorted();
+        assertThat(exported).containsExactlyInAnyOrderElementsOf(listed);
+        assertThat(exported).extracting(sessionDto -> sessionDto.getUsers().size()).containsExactly(1, 2, 0);
+    }
+}
@@ -0,0 +1,145 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that a merge patch only changes the given fields, without ever touching the participants
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:01:52
+ */
+
+public class SessionPatchIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Teacher teacher;
+
+    private Session session;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+        users = saveUsers(20);
+        session = sessionService.create(new Session()
+                .setName("Session")
+                .setDescription("Description")
+                .setDate(new Date())
+                .setCapacity(30)
+                .setTeacher(teacher)
+                .setUsers(new HashSet<>(users)));
+    }
+
+    private MockHttpServletRequestBuilder mergePatch(String json) {
+        return patch("/api/session/" + session.getId())
+                .contentType(SessionController.MERGE_PATCH_JSON_VALUE)
+                .content(json);
+    }
+
+    private Session reload() {
+        return sessionRepository.findById(session.getId()).orElseThrow(IllegalStateException::new);
+    }
+
+    @Test
+    public void shouldDenyPatchWhenUserNotAuthenticated() throws Exception {
+        mockMvc.perform(mergePatch("{\"name\": \"Renamed\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldPatchGivenFieldsOnly() throws Exception {
+        mockMvc.perform(mergePatch("{\"name\": \"Renamed\", \"capacity\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (session.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("name").value("Renamed"))
+                .andExpect(jsonPath("description").value("Description"))
+                .andExpect(jsonPath("capacity").isEmpty())
+                .andExpect(jsonPath("users.length()").value(users.size()));
+
+        Session patched = reload();
+        assertThat(patched.getName()).isEqualTo("Renamed");
+        assertThat(patched.getCapacity()).isNull();
+        assertThat(patched.getParticipantCount()).isEqualTo(users.size());
+        assertThat(patched.getVersion()).isEqualTo(session.getVersion() + 1);
+    }
+
+    @Test
+    public void shouldWriteOnlySessionRow() {
+        statistics.clear();
+
+        sessionService.patch(session.getId(), s -> s.setName("Renamed"), session.getVersion());
+
+        // the session is read then updated, participants are neither loaded nor written
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(statistics.getCollectionUpdateCount()).isZero();
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(sessionService.findParticipantIds(Collections.singletonList(session.getId())).get(session.getId())).hasSize(users.size());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldRejectStalePatch() throws Exception {
+        String etag = "\"" + session.getVersion() + "\"";
+        sessionService.participate(session.getId(), saveUser("late@test.com").getId());
+
+        mockMvc.perform(mergePatch("{\"name\": \"Renamed\"}").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(mergePatch("{\"name\": \"Renamed\", \"version\": " + session.getVersion() + "}"))
+                .andExpect(status().isConflict());
+
+        assertThat(reload().getName()).isEqualTo("Session");
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldRejectInvalidPatches() throws Exception {
+        // participants change through participation only
+        mockMvc.perform(mergePatch("{\"users\": []}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(mergePatch("{\"name\": null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(mergePatch("{\"teacher_id\": " + (teacher.getId() + 1000) + "}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(mergePatch("{\"capacity\": " + (users.size() - 1) + "}"))
+                .andExpect(status().isBadRequest());
+
+        Session unchanged = reload();
+        assertThat(unchanged.getName()).isEqualTo("Session");
+        assertThat(unchanged.getCapacity()).isEqualTo(30);
+        assertThat(unchanged.getVersion()).isEqualTo(session.getVersion());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldReturnNotFoundWhenPatchingUnknownSession() throws Exception {
+        mockMvc.perform(patch("/api/session/" + (session.getId() + 1000))
+                        .contentType(SessionController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"name\": \"Renamed\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
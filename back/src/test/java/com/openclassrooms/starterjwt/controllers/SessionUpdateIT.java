@@ -0,0 +1,175 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that concurrent edits of a session are detected instead of overwriting each other,
+ * and that an update is written in place whatever the number of participants
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:01:05
+ */
+
+public class SessionUpdateIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Teacher teacher;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+        users = saveUsers(3);
+    }
+
+    private Session createSession(Collection<User> participants) {
+        return createSession("Session", new Date(), teacher, participants.toArray(new User[0]));
+    }
+
+    private SessionDto read(Long id) throws Exception {
+        return objectMapper.readValue(mockMvc.perform(get("/api/session/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), SessionDto.class);
+    }
+
+    private String json(SessionDto sessionDto, String name) throws Exception {
+        sessionDto.setName(name);
+        return objectMapper.writeValueAsString(sessionDto);
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldRejectSecondEditBasedOnSameIfMatch() throws Exception {
+        Session session = createSession(users.subList(0, 1));
+        String url = "/api/session/" + session.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        SessionDto sessionDto = read(session.getId());
+
+        String newEtag = mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(json(sessionDto, "First edit")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+
+        mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(json(sessionDto, "Second edit")))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(read(session.getId()).getName()).isEqualTo("First edit");
+        mockMvc.perform(get(url)).andExpect(header().string(HttpHeaders.ETAG, newEtag));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldRejectSecondEditBasedOnSameBodyVersion() throws Exception {
+        Session session = createSession(users.subList(0, 1));
+        String url = "/api/session/" + session.getId();
+        SessionDto sessionDto = read(session.getId());
+
+        mockMvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(json(sessionDto, "First edit")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(json(sessionDto, "Second edit")))
+                .andExpect(status().isConflict());
+
+        assertThat(read(session.getId()).getName()).isEqualTo("First edit");
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldRejectEditBasedOnStateBeforeABooking() throws Exception {
+        Session session = createSession(users.subList(0, 1));
+        String url = "/api/session/" + session.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        SessionDto sessionDto = read(session.getId());
+
+        sessionService.participate(session.getId(), users.get(1).getId());
+
+        // the edit would drop the new participant
+        mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(json(sessionDto, "Edit")))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(countParticipations(session.getId(), users.get(1).getId())).isEqualTo(1);
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldReturnNotFoundWhenUpdatingUnknownSession() throws Exception {
+        Session session = createSession(Collections.emptyList());
+        SessionDto sessionDto = read(session.getId());
+
+        mockMvc.perform(put("/api/session/" + (session.getId() + 1000))
+                        .contentType(MediaType.APPLICATION_JSON).content(json(sessionDto, "Edit")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void shouldSynchronizeParticipants() {
+        Session session = createSession(users.subList(0, 2));
+
+        Session updated = sessionService.update(session.getId(), new Session()
+                .setName("Session")
+                .setDescription("Description")
+                .setDate(new Date())
+                .setTeacher(teacher)
+                .setUsers(new HashSet<>(Arrays.asList(users.get(0), users.get(2)))), session.getVersion());
+
+        assertThat(updated.getVersion()).isEqualTo(session.getVersion() + 1);
+        assertThat(updated.getParticipantCount()).isEqualTo(2);
+        assertThat(sessionService.findParticipantIds(Collections.singletonList(session.getId())).get(session.getId()))
+                .containsExactlyInAnyOrder(users.get(0).getId(), users.get(2).getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 10, 100})
+    public void shouldUpdateWithConstantStatementCount(int participantCount) {
+        List<User> participants = new ArrayList<>();
+        for (int i = 0; i < participantCount; i++) {
+            participants.add(new User("participant" + i + "@test.com", "User", "Test", "password", false));
+        }
+        participants = userRepository.saveAll(participants);
+        Session session = createSession(participants);
+        Set<User> kept = participants.stream().skip(participantCount / 2).collect(Collectors.toSet());
+        statistics.clear();
+
+        sessionService.update(session.getId(), new Session()
+                .setName("Renamed")
+                .setDescription("Description")
+                .setDate(new Date())
+                .setTeacher(teacher)
+                .setUsers(kept), session.getVersion());
+
+        // conditional update, participants removed, participants added, then the updated session is read back
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(participantCount == 0 ? 3 : 4);
+        assertThat(sessionRepository.findById(session.getId()).map(Session::getParticipantCount)).contains(kept.size());
+    }
+}
@@ -1,23 +1,28 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.openclassrooms.starterjwt.config.CacheConfig;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import java.util.*;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * @author Wilhelm Zwertvaegher
@@ -37,6 +42,15 @@ public class TeacherControllerIT {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        // the mocked repository bypasses the eviction on writes
+        Objects.requireNonNull(cacheManager.getCache(CacheConfig.TEACHERS)).clear();
+    }
+
     @Test
     public void shouldDenyTeacherReadWhenUserNotAuthenticated() throws Exception {
         mockMvc.perform(get("/api/teacher").contentType(MediaType.APPLICATION_JSON))
@@ -104,4 +118,25 @@ public class TeacherControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser
+    public void shouldServeTeachersFromCacheWithValidators() throws Exception {
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        teacher.setFirstName("Test");
+        teacher.setLastName("Teacher");
+        when(teacherRepository.findAll()).thenReturn(Collections.singletonList(teacher));
+
+        String etag = mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, private"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/teacher").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(teacherRepository, times(1)).findAll();
+    }
 }
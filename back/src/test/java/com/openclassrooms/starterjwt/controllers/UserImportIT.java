@@ -0,0 +1,140 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.UserImportResult;
+import com.openclassrooms.starterjwt.payload.response.UserImportResult.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Imports users through the whole stack down to an embedded database,
+ * with tiny chunks so that records span several batches
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:21:48
+ */
+
+@TestPropertySource(properties = {
+        "oc.app.bcryptStrength=4",
+        "oc.app.userImportChunkSize=2"
+})
+public class UserImportIT extends EmbeddedDatabaseIT {
+
+    private static final String IMPORT_URL = "/api/user/import";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(new User("existing@test.com", "User", "Existing", "password", false));
+    }
+
+    private List<UserImportResult> importUsers(MediaType contentType, String content) throws Exception {
+        MvcResult started = mockMvc.perform(post(IMPORT_URL).contentType(contentType).content(content))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<UserImportResult> results = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            results.add(objectMapper.readValue(line, UserImportResult.class));
+        }
+        return results;
+    }
+
+    @Test
+    public void shouldDenyImportWhenUserNotAuthenticated() throws Exception {
+        mockMvc.perform(post(IMPORT_URL).contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldDenyImportWhenUserNotAdmin() throws Exception {
+        mockMvc.perform(post(IMPORT_URL).contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldImportJsonAndReportEachRecord() throws Exception {
+        String json = "["
+                + "{\"email\":\"first@test.com\",\"firstName\":\"First\",\"lastName\":\"User\",\"password\":\"abcd1234\"},"
+                + "{\"email\":\"not-an-email\",\"firstName\":\"Bad\",\"lastName\":\"User\",\"password\":\"abcd1234\"},"
+                + "{\"email\":\"first@test.com\",\"firstName\":\"Again\",\"lastName\":\"User\",\"password\":\"abcd1234\"},"
+                + "{\"email\":\"existing@test.com\",\"firstName\":\"Existing\",\"lastName\":\"User\",\"password\":\"abcd1234\"},"
+                + "{\"email\":\"second@test.com\",\"firstName\":\"Second\",\"lastName\":\"User\",\"password\":\"efgh5678\"}"
+                + "]";
+
+        List<UserImportResult> results = importUsers(MediaType.APPLICATION_JSON, json);
+
+        assertThat(results).extracting(UserImportResult::getLine).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(results).extracting(UserImportResult::getStatus)
+                .containsExactly(Status.CREATED, Status.INVALID, Status.EMAIL_TAKEN, Status.EMAIL_TAKEN, Status.CREATED);
+        assertThat(results.get(1).getMessage()).contains("email");
+        assertThat(userRepository.count()).isEqualTo(3);
+        User second = userRepository.findByEmail("second@test.com").orElseThrow(IllegalStateException::new);
+        assertThat(second.getFirstName()).isEqualTo("Second");
+        assertThat(second.isAdmin()).isFalse();
+        assertThat(passwordEncoder.matches("efgh5678", second.getPassword())).isTrue();
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldImportCsv() throws Exception {
+        String csv = "email,firstName,lastName,password\n"
+                + "first@test.com,First,User,abcd1234\n"
+                + "\n"
+                + "second@test.com,Second,User,with,comma\n"
+                + "third@test.com,Third\n"
+                + "fourth@test.com,Fourth,User,abcd1234\n";
+
+        List<UserImportResult> results = importUsers(MediaType.parseMediaType("text/csv"), csv);
+
+        // the third record is cut short, the import stops there
+        assertThat(results).extracting(UserImportResult::getStatus).containsExactly(Status.CREATED, Status.CREATED, Status.MALFORMED);
+        assertThat(results).extracting(UserImportResult::getLine).containsExactly(2L, 4L, 5L);
+        assertThat(passwordEncoder.matches("with,comma", userRepository.findByEmail("second@test.com").map(User::getPassword).orElse(null))).isTrue();
+        assertThat(userRepository.findByEmail("fourth@test.com")).isEmpty();
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void shouldStopAtMalformedJson() throws Exception {
+        String json = "[{\"email\":\"first@test.com\",\"firstName\":\"First\",\"lastName\":\"User\",\"password\":\"abcd1234\"},{\"email\":";
+
+        List<UserImportResult> results = importUsers(MediaType.APPLICATION_JSON, json);
+
+        assertThat(results).extracting(UserImportResult::getStatus).containsExactly(Status.CREATED, Status.MALFORMED);
+        assertThat(results.get(1).getLine()).isEqualTo(2L);
+        assertThat(userRepository.findByEmail("first@test.com")).isPresent();
+    }
+}
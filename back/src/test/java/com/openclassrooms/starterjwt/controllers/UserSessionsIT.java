@@ -0,0 +1,116 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPageDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the sessions of a user, upcoming and past, paged through the participant reverse lookup
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:23:12
+ */
+
+public class UserSessionsIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    private final List<Long> upcomingIds = new ArrayList<>();
+
+    private final List<Long> pastIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        upcomingIds.clear();
+        pastIds.clear();
+
+        Teacher teacher = saveTeacher("Test");
+        user = saveUser("user@test.com");
+        User other = saveUser("other@test.com");
+
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= 3; i++) {
+            upcomingIds.add(createSession("Session", new Date(now + TimeUnit.DAYS.toMillis(i)), teacher, user).getId());
+            pastIds.add(createSession("Session", new Date(now - TimeUnit.DAYS.toMillis(i)), teacher, user).getId());
+        }
+        // sessions of someone else never show up
+        createSession("Session", new Date(now + TimeUnit.DAYS.toMillis(1)), teacher, other);
+        createSession("Session", new Date(now - TimeUnit.DAYS.toMillis(1)), teacher, other);
+    }
+
+    private SessionPageDto fetch(MockHttpServletRequestBuilder request) throws Exception {
+        return objectMapper.readValue(mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), SessionPageDto.class);
+    }
+
+    @Test
+    public void shouldDenySessionsWhenUserNotAuthenticated() throws Exception {
+        mockMvc.perform(get("/api/user/{id}/sessions", user.getId()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldPageUpcomingSessionsFromTheNearest() throws Exception {
+        SessionPageDto first = fetch(get("/api/user/{id}/sessions", user.getId()).param("size", "2"));
+        assertThat(first.getSessions()).extracting(SessionDto::getId).containsExactlyElementsOf(upcomingIds.subList(0, 2));
+        assertThat(first.getNextCursor()).isNotNull();
+
+        SessionPageDto second = fetch(get("/api/user/{id}/sessions", user.getId()).param("size", "2").param("cursor", first.getNextCursor()));
+        assertThat(second.getSessions()).extracting(SessionDto::getId).containsExactly(upcomingIds.get(2));
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldPagePastSessionsFromTheLatest() throws Exception {
+        SessionPageDto first = fetch(get("/api/user/{id}/sessions", user.getId()).param("past", "true").param("size", "2"));
+        assertThat(first.getSessions()).extracting(SessionDto::getId).containsExactlyElementsOf(pastIds.subList(0, 2));
+        assertThat(first.getSessions()).allSatisfy(sessionDto -> assertThat(sessionDto.getUsers()).containsExactly(user.getId()));
+
+        SessionPageDto second = fetch(get("/api/user/{id}/sessions", user.getId()).param("past", "true").param("size", "2").param("cursor", first.getNextCursor()));
+        assertThat(second.getSessions()).extracting(SessionDto::getId).containsExactly(pastIds.get(2));
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldReturnNotFoundForUnknownUser() throws Exception {
+        mockMvc.perform(get("/api/user/{id}/sessions", user.getId() + 1000))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    public void shouldReturnBadRequestForInvalidSize() throws Exception {
+        mockMvc.perform(get("/api/user/{id}/sessions", user.getId()).param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -2,11 +2,16 @@ package com.openclassrooms.starterjwt.mapper;
 
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.SessionService;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
+import org.hibernate.collection.internal.PersistentSet;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +23,12 @@ import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -37,6 +48,9 @@ public class SessionMapperTest {
     @MockBean
     private TeacherService teacherService;
 
+    @MockBean
+    private SessionService sessionService;
+
     @Autowired
     private SessionMapper sessionMapper;
 
@@ -78,10 +92,10 @@ public class SessionMapperTest {
                 .setName("test session")
                 .setDescription("this is a test session")
                 .setTeacher(new Teacher().setId(1L).setFirstName("Test").setLastName("Teacher"))
-                .setUsers(Arrays.asList(
+                .setUsers(new LinkedHashSet<>(Arrays.asList(
                     new User().setId(1L).setFirstName("Test").setLastName("Session"),
                     new User().setId(2L).setFirstName("Other").setLastName("Session")
-                ))
+                )))
                 .setCreatedAt(LocalDateTime.now())
                 .setUpdatedAt(LocalDateTime.now());
         SessionDto sessionDto = sessionMapper.toDto(session);
@@ -96,6 +110,37 @@ public class SessionMapperTest {
         assertThat(sessionDto.getUpdatedAt()).isEqualTo(session.getUpdatedAt());
     }
 
+    @Test
+    public void testEntityWithLazyUsersToDto() {
+        // a not yet initialized collection, as loaded by Hibernate
+        Session session = new Session().setId(1L).setUsers(new PersistentSet());
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+        participantIds.put(1L, Arrays.asList(3L, 4L));
+        when(sessionService.findParticipantIds(Collections.singletonList(1L))).thenReturn(participantIds);
+
+        SessionDto sessionDto = sessionMapper.toDto(session);
+
+        assertThat(sessionDto.getUsers()).containsExactly(3L, 4L);
+    }
+
+    @Test
+    public void testEntityListWithLazyUsersToDtoList() {
+        Session session1 = new Session().setId(1L).setUsers(new PersistentSet());
+        Session session2 = new Session().setId(2L).setUsers(new PersistentSet());
+        Session session3 = new Session().setId(3L).setUsers(Collections.singleton(new User().setId(7L)));
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+        participantIds.put(1L, Arrays.asList(3L, 4L));
+        when(sessionService.findParticipantIds(Arrays.asList(1L, 2L))).thenReturn(participantIds);
+
+        List<SessionDto> sessionDtos = sessionMapper.toDto(Arrays.asList(session1, session2, session3));
+
+        verify(sessionService, times(1)).findParticipantIds(anyList());
+        assertThat(sessionDtos).extracting(SessionDto::getUsers).containsExactly(
+                Arrays.asList(3L, 4L),
+                Collections.emptyList(),
+                Collections.singletonList(7L));
+    }
+
     @Test
     public void testNullEntityListToDto() {
         List<Session> sessions = null;
@@ -108,7 +153,7 @@ public class SessionMapperTest {
     @Test
     public void testEntityListToDtoList() {
         List<Session> sessions = new ArrayList<>();
-        List<User> users = Collections.singletonList(new User().setId(1L).setFirstName("Test").setLastName("User"));
+        Set<User> users = Collections.singleton(new User().setId(1L).setFirstName("Test").setLastName("User"));
         List<List<Long>> expectedUsers = new ArrayList<>();
         for (int i = 0; i < 10; i++) {
             Session session = new Session();
@@ -177,8 +222,7 @@ public class SessionMapperTest {
         sessionDto.setTeacher_id(1L);
         sessionDto.setUsers(Arrays.asList(1L, 2L));
 
-        when(userService.findById(1L)).thenReturn(new User().setId(1L));
-        when(userService.findById(2L)).thenReturn(new User().setId(2L));
+        when(userService.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(new User().setId(1L), new User().setId(2L)));
         when(teacherService.findById(1L)).thenReturn(new Teacher().setId(1L));
 
         Session session = sessionMapper.toEntity(sessionDto);
@@ -228,8 +272,8 @@ public class SessionMapperTest {
         sessionDto2.setUpdatedAt(now);
         sessionDtos.add(sessionDto2);
 
-        when(userService.findById(1L)).thenReturn(user1);
-        when(userService.findById(2L)).thenReturn(user2);
+        when(userService.findAllById(Collections.singletonList(1L))).thenReturn(Collections.singletonList(user1));
+        when(userService.findAllById(Collections.singletonList(2L))).thenReturn(Collections.singletonList(user2));
         when(teacherService.findById(1L)).thenReturn(teacher1);
         when(teacherService.findById(2L)).thenReturn(teacher2);
 
@@ -243,4 +287,70 @@ public class SessionMapperTest {
         assertThat(sessions.get(1).getUsers()).extracting(User::getId).containsExactly(2L);
         assertThat(sessions).extracting(Session::getTeacher).extracting(Teacher::getId).containsExactly(1L, 2L);
     }
+
+    @Test
+    public void testSummaryToSummaryDto() {
+        Date date = new Date();
+        SessionSummary sessionSummary = mock(SessionSummary.class);
+        when(sessionSummary.getId()).thenReturn(1L);
+        when(sessionSummary.getName()).thenReturn("Session");
+        when(sessionSummary.getDate()).thenReturn(date);
+        when(sessionSummary.getTeacherId()).thenReturn(2L);
+        when(sessionSummary.getCapacity()).thenReturn(20);
+        when(sessionSummary.getParticipantCount()).thenReturn(12);
+
+        SessionSummaryDto sessionSummaryDto = sessionMapper.toSummaryDto(sessionSummary);
+
+        assertThat(sessionSummaryDto).isEqualTo(new SessionSummaryDto(1L, "Session", date, 2L, 20, 12));
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    public void testPatchOnlyGivenFields() {
+        Date date = new Date();
+        Teacher teacher = new Teacher().setId(2L);
+        Session session = new Session().setId(1L).setName("Session").setDescription("Description").setDate(date).setCapacity(10).setTeacher(teacher);
+        SessionDto values = new SessionDto();
+        values.setName("Renamed");
+
+        sessionMapper.patch(session, values, new HashSet<>(Arrays.asList("name", "capacity")));
+
+        assertThat(session.getName()).isEqualTo("Renamed");
+        // an explicit null removes the limit
+        assertThat(session.getCapacity()).isNull();
+        assertThat(session.getDescription()).isEqualTo("Description");
+        assertThat(session.getDate()).isSameAs(date);
+        assertThat(session.getTeacher()).isSameAs(teacher);
+        verifyNoInteractions(teacherService, userService);
+    }
+
+    @Test
+    public void testPatchTeacher() {
+        Teacher teacher = new Teacher().setId(3L);
+        when(teacherService.findById(3L)).thenReturn(teacher);
+        Session session = new Session().setId(1L).setTeacher(new Teacher().setId(2L));
+        SessionDto values = new SessionDto();
+        values.setTeacher_id(3L);
+
+        sessionMapper.patch(session, values, Collections.singleton("teacher_id"));
+
+        assertThat(session.getTeacher()).isSameAs(teacher);
+    }
+
+    @Test
+    public void testPatchWithUnknownTeacherFails() {
+        SessionDto values = new SessionDto();
+        values.setTeacher_id(3L);
+
+        assertThrows(BadRequestException.class, () -> sessionMapper.patch(new Session(), values, Collections.singleton("teacher_id")));
+    }
+
+    @Test
+    public void testPatchOfParticipantsFails() {
+        SessionDto values = new SessionDto();
+        values.setUsers(Collections.singletonList(1L));
+
+        assertThrows(BadRequestException.class, () -> sessionMapper.patch(new Session(), values, Collections.singleton("users")));
+        verifyNoInteractions(userService);
+    }
 }
@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.repository;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the migrations of db/migration against an embedded database in MySQL mode,
+ * from scratch and on top of a database in its initial state
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:23:40
+ */
+@Tag("Integration")
+public class DatabaseMigrationIT {
+
+    private JdbcDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migration-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    private void migrate(String target) {
+        Flyway.configure().dataSource(dataSource).target(target).load().migrate();
+    }
+
+    private boolean hasIndex(String table, String index) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = ? AND INDEX_NAME = ?",
+                Integer.class, table, index) > 0;
+    }
+
+    @Test
+    public void shouldCreateKeysAndIndexes() {
+        migrate("latest");
+
+        assertThat(hasIndex("SESSIONS", "IDX_SESSIONS_DATE_ID")).isTrue();
+        assertThat(hasIndex("SESSIONS", "IDX_SESSIONS_TEACHER_DATE_ID")).isTrue();
+        assertThat(hasIndex("PARTICIPATE", "IDX_PARTICIPATE_USER_ID")).isTrue();
+
+        jdbcTemplate.update("INSERT INTO SESSIONS (name, description, date, teacher_id) VALUES ('Session', ?, CURRENT_TIMESTAMP, 1)",
+                String.join("", Collections.nCopies(2500, "a")));
+        Long sessionId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM SESSIONS", Long.class);
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (1, ?)", sessionId);
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (1, ?)", sessionId));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("INSERT INTO USERS (first_name, last_name, email, password) VALUES ('Other', 'Admin', 'yoga@studio.com', 'password')"));
+    }
+
+    @Test
+    public void shouldStartIdGeneratorsAboveExistingIds() {
+        migrate("latest");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM TEACHERS_SEQ", Long.class)).isEqualTo(53L);
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM SESSIONS_SEQ", Long.class)).isEqualTo(51L);
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM USERS_SEQ", Long.class)).isEqualTo(52L);
+    }
+
+    @Test
+    public void shouldUpgradeInitialDatabase() {
+        migrate("1");
+        jdbcTemplate.update("INSERT INTO SESSIONS (name, description, date, teacher_id) VALUES ('Session', 'Description', CURRENT_TIMESTAMP, 1)");
+        Long sessionId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM SESSIONS", Long.class);
+        // the initial schema let the same participation be recorded twice
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (1, ?)", sessionId);
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (1, ?)", sessionId);
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (NULL, ?)", sessionId);
+
+        migrate("latest");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT participant_count FROM SESSIONS WHERE id = ?", Integer.class, sessionId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM SESSIONS WHERE id = ?", Long.class, sessionId)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM SESSIONS_SEQ", Long.class)).isEqualTo(sessionId + 51);
+    }
+}
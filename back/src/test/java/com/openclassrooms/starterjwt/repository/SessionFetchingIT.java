@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that mapping sessions to dtos costs a constant number of statements, whatever the number of sessions.
+ * Runs against an embedded database to count the statements actually sent.
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:15:02
+ */
+
+public class SessionFetchingIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private SessionMapper sessionMapper;
+
+    private Teacher teacher;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+        users = saveUsers(5);
+    }
+
+    private void createSessions(int count) {
+        for (int i = 0; i < count; i++) {
+            createSession("Session " + i, new Date(), teacher, users.toArray(new User[0]));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    public void shouldMapAllSessionsWithConstantStatementCount(int sessionCount) {
+        createSessions(sessionCount);
+        statistics.clear();
+
+        List<SessionDto> sessionDtos = sessionMapper.toDto(sessionService.findAll());
+
+        assertThat(sessionDtos).hasSize(sessionCount);
+        assertThat(sessionDtos).allSatisfy(sessionDto -> assertThat(sessionDto.getUsers()).hasSize(users.size()));
+        // one select for the sessions, one id-only select for the participants
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        // users themselves are never loaded
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(sessionCount);
+    }
+
+    @Test
+    public void shouldMapOneSessionWithoutLoadingUsers() {
+        createSessions(1);
+        Long id = sessionRepository.findAll().get(0).getId();
+        statistics.clear();
+
+        SessionDto sessionDto = sessionMapper.toDto(sessionService.getById(id));
+
+        assertThat(sessionDto.getUsers()).hasSize(users.size());
+        assertThat(sessionDto.getTeacher_id()).isEqualTo(teacher.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    public void shouldListSummariesWithoutTouchingParticipants(int sessionCount) {
+        createSessions(sessionCount);
+        statistics.clear();
+
+        List<SessionSummaryDto> summaries = sessionMapper.toSummaryDto(sessionService.findAllSummaries());
+
+        assertThat(summaries).hasSize(sessionCount);
+        assertThat(summaries).allSatisfy(summary -> {
+            assertThat(summary.getParticipantCount()).isEqualTo(users.size());
+            assertThat(summary.getTeacher_id()).isEqualTo(teacher.getId());
+        });
+        // a single select on the sessions table, no entity is loaded at all
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that joining or leaving a session costs the same number of statements whatever the size of the class
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:15:48
+ */
+
+public class SessionParticipationIT extends EmbeddedDatabaseIT {
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+    }
+
+    private Session createSession(int participantCount) {
+        return createSession(participantCount, null);
+    }
+
+    private Session createSession(int participantCount, Integer capacity) {
+        return sessionService.create(new Session()
+                .setName("Session")
+                .setDescription("Description")
+                .setDate(new Date())
+                .setCapacity(capacity)
+                .setTeacher(teacher)
+                .setUsers(new HashSet<>(saveUsers(participantCount))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 10, 100})
+    public void shouldJoinAndLeaveWithConstantStatementCount(int participantCount) {
+        Session session = createSession(participantCount);
+        User user = saveUser("newcomer@test.com");
+
+        statistics.clear();
+        sessionService.participate(session.getId(), user.getId());
+        // session and user existence, session lock, participation check, seat reservation, insert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        assertThat(countParticipations(session.getId(), user.getId())).isEqualTo(1);
+
+        statistics.clear();
+        sessionService.noLongerParticipate(session.getId(), user.getId());
+        // session existence, session lock, delete, seat release
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(countParticipations(session.getId(), user.getId())).isZero();
+        assertThat(sessionService.findParticipantIds(Collections.singletonList(session.getId())).getOrDefault(session.getId(), Collections.emptyList()))
+                .hasSize(participantCount);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100})
+    public void shouldCreateSessionWithBatchedParticipantInserts(int participantCount) {
+        List<User> participants = new ArrayList<>();
+        for (int i = 0; i < participantCount; i++) {
+            participants.add(new User("participant" + i + "@test.com", "User", "Test", "password", false));
+        }
+        participants = userRepository.saveAll(participants);
+
+        statistics.clear();
+        sessionService.create(new Session()
+                .setName("Session")
+                .setDescription("Description")
+                .setDate(new Date())
+                .setTeacher(teacher)
+                .setUsers(new HashSet<>(participants)));
+
+        // session insert and participants inserted by batches, plus a new block of session ids once in a while
+        assertThat(statistics.getPrepareStatementCount()).isBetween(2L, 3L);
+        assertThat(sessionRepository.findAll().get(0).getParticipantCount()).isEqualTo(participantCount);
+    }
+
+    @Test
+    public void shouldRejectDuplicateParticipation() {
+        Session session = createSession(1);
+        User user = saveUser("newcomer@test.com");
+
+        sessionService.participate(session.getId(), user.getId());
+
+        assertThrows(BadRequestException.class, () -> sessionService.participate(session.getId(), user.getId()));
+        assertThat(countParticipations(session.getId(), user.getId())).isEqualTo(1);
+        assertThat(sessionRepository.findById(session.getId()).map(Session::getParticipantCount)).contains(2);
+    }
+
+    @Test
+    public void shouldRejectBookingWhenSessionFull() {
+        Session session = createSession(1, 1);
+        User user = saveUser("newcomer@test.com");
+
+        assertThrows(SessionFullException.class, () -> sessionService.participate(session.getId(), user.getId()));
+        assertThat(countParticipations(session.getId(), user.getId())).isZero();
+        assertThat(sessionRepository.findById(session.getId()).map(Session::getParticipantCount)).contains(1);
+    }
+}
@@ -0,0 +1,68 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.EmbeddedDatabaseIT;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that teachers are read once, then served from the cache until a teacher is written
+ *
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:23:48
+ */
+
+public class TeacherCacheIT extends EmbeddedDatabaseIT {
+
+    @Autowired
+    private TeacherService teacherService;
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        teacher = saveTeacher("Test");
+    }
+
+    @Test
+    public void shouldReadTeachersOnce() {
+        statistics.clear();
+
+        assertThat(teacherService.findAll()).hasSize(1);
+        assertThat(teacherService.findAll()).hasSize(1);
+        assertThat(teacherService.findById(teacher.getId())).isEqualTo(teacher);
+        assertThat(teacherService.findById(teacher.getId())).isEqualTo(teacher);
+
+        // one select for the list, one for the teacher by id
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldEvictTeachersOnWrite() {
+        assertThat(teacherService.findAll()).hasSize(1);
+
+        Teacher other = saveTeacher("Other");
+        assertThat(teacherService.findAll()).hasSize(2);
+
+        teacherRepository.save(teacherService.findById(other.getId()).setLastName("Renamed"));
+        assertThat(teacherService.findById(other.getId()).getLastName()).isEqualTo("Renamed");
+
+        teacherRepository.deleteById(other.getId());
+        assertThat(teacherService.findById(other.getId())).isNull();
+        assertThat(teacherService.findAll()).containsExactly(teacher);
+    }
+
+    @Test
+    public void shouldNotCacheMissingTeacher() {
+        assertThat(teacherService.findById(teacher.getId() + 1000)).isNull();
+        statistics.clear();
+
+        assertThat(teacherService.findById(teacher.getId() + 1000)).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,147 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import com.openclassrooms.starterjwt.security.WebSecurityConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:20:12
+ */
+@Tag("BoundedPasswordEncoder")
+public class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder boundedPasswordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        boundedPasswordEncoder.destroy();
+    }
+
+    @Nested
+    class Hashing {
+
+        @Test
+        public void shouldEncodeWithCurrentEncoderAndMatch() {
+            boundedPasswordEncoder = new BoundedPasswordEncoder(WebSecurityConfig.delegatingPasswordEncoder(4), 1, 1, 10000);
+
+            String encoded = boundedPasswordEncoder.encode("password");
+
+            assertThat(encoded).startsWith("{bcrypt}");
+            assertThat(boundedPasswordEncoder.matches("password", encoded)).isTrue();
+            assertThat(boundedPasswordEncoder.matches("wrong", encoded)).isFalse();
+            assertThat(boundedPasswordEncoder.upgradeEncoding(encoded)).isFalse();
+        }
+
+        @Test
+        public void shouldMatchLegacyHashAndAskForUpgrade() {
+            boundedPasswordEncoder = new BoundedPasswordEncoder(WebSecurityConfig.delegatingPasswordEncoder(4), 1, 1, 10000);
+            String legacy = new BCryptPasswordEncoder().encode("password");
+
+            assertThat(boundedPasswordEncoder.matches("password", legacy)).isTrue();
+            assertThat(boundedPasswordEncoder.upgradeEncoding(legacy)).isTrue();
+        }
+
+        @Test
+        public void shouldRethrowDelegateException() {
+            PasswordEncoder delegate = mock(PasswordEncoder.class);
+            when(delegate.encode(any())).thenThrow(new IllegalArgumentException("bad"));
+            boundedPasswordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, 10000);
+
+            assertThrows(IllegalArgumentException.class, () -> boundedPasswordEncoder.encode("password"));
+        }
+
+        @Test
+        public void shouldWrapCheckedDelegateException() {
+            PasswordEncoder delegate = mock(PasswordEncoder.class);
+            when(delegate.encode(any())).thenAnswer(invocation -> {
+                throw new Exception("bad");
+            });
+            boundedPasswordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, 10000);
+
+            assertThrows(IllegalStateException.class, () -> boundedPasswordEncoder.encode("password"));
+        }
+    }
+
+    @Nested
+    class Saturation {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "encoded";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+
+        @AfterEach
+        void releaseHashing() {
+            release.countDown();
+        }
+
+        @Test
+        public void shouldThrowServiceUnavailableWhenQueueIsFull() throws InterruptedException {
+            boundedPasswordEncoder = new BoundedPasswordEncoder(blockingEncoder, 1, 1, 10000);
+            ExecutorService callers = Executors.newFixedThreadPool(2);
+            try {
+                // one hash running, one waiting in the queue
+                callers.submit(() -> boundedPasswordEncoder.encode("first"));
+                callers.submit(() -> boundedPasswordEncoder.encode("second"));
+                while (boundedPasswordEncoder.queuedHashes() < 1) {
+                    Thread.sleep(10);
+                }
+
+                assertThrows(ServiceUnavailableException.class, () -> boundedPasswordEncoder.encode("third"));
+            } finally {
+                release.countDown();
+                callers.shutdown();
+                callers.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+
+        @Test
+        public void shouldThrowServiceUnavailableOnTimeout() {
+            boundedPasswordEncoder = new BoundedPasswordEncoder(blockingEncoder, 1, 1, 50);
+
+            assertThrows(ServiceUnavailableException.class, () -> boundedPasswordEncoder.encode("password"));
+        }
+
+        @Test
+        public void shouldThrowServiceUnavailableWhenInterrupted() {
+            boundedPasswordEncoder = new BoundedPasswordEncoder(blockingEncoder, 1, 1, 10000);
+
+            Thread.currentThread().interrupt();
+            assertThrows(ServiceUnavailableException.class, () -> boundedPasswordEncoder.encode("password"));
+            // the interruption is kept for the caller, cleared here for the next tests
+            assertThat(Thread.interrupted()).isTrue();
+        }
+    }
+}
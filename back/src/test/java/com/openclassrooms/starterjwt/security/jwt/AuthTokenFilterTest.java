@@ -5,6 +5,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -59,8 +60,7 @@ public class AuthTokenFilterTest {
     @Test
     public void shouldAuthenticateUser() throws Exception {
         when(request.getHeader("Authorization")).thenReturn("Bearer validToken");
-        when(jwtUtils.validateJwtToken("validToken")).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken("validToken")).thenReturn("username");
+        when(jwtUtils.parseAndValidate("validToken")).thenReturn(Jwts.claims().setSubject("username"));
         when(userDetailsService.loadUserByUsername("username")).thenReturn(new User("username", "password", Collections.emptyList()));
 
         authTokenFilter.doFilter(request, response, filterChain);
@@ -82,7 +82,7 @@ public class AuthTokenFilterTest {
     @Test
     public void shouldNotAuthenticateUserWhenTokenInvalid() throws Exception {
         when(request.getHeader("Authorization")).thenReturn("Bearer invalidToken");
-        when(jwtUtils.validateJwtToken("invalidToken")).thenReturn(false);
+        when(jwtUtils.parseAndValidate("invalidToken")).thenReturn(null);
 
         authTokenFilter.doFilter(request, response, filterChain);
 
@@ -101,7 +101,7 @@ public class AuthTokenFilterTest {
         memoryAppender.start();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer invalidToken");
-        when(jwtUtils.validateJwtToken("invalidToken")).thenThrow(new RuntimeException("Unexpected error"));
+        when(jwtUtils.parseAndValidate("invalidToken")).thenThrow(new RuntimeException("Unexpected error"));
 
         authTokenFilter.doFilter(request, response, filterChain);
 
@@ -5,6 +5,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.junit.jupiter.api.AfterEach;
@@ -97,6 +98,7 @@ public class JwtUtilsTest {
     @Test
     public void shouldValidateJwtToken() {
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 2000000);
 
         String validToken = Jwts.builder()
@@ -109,6 +111,85 @@ public class JwtUtilsTest {
         assertThat(jwtUtils.validateJwtToken(validToken)).isTrue();
     }
 
+    @Test
+    public void shouldParseAndValidateJwtTokenInOnePass() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        String validToken = Jwts.builder()
+                .setSubject("testUser")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 1000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        Claims claims = jwtUtils.parseAndValidate(validToken);
+
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo("testUser");
+    }
+
+    @Test
+    public void shouldServeAlreadyVerifiedJwtTokenFromCache() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        String validToken = Jwts.builder()
+                .setSubject("cachedUser")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        Claims claims = jwtUtils.parseAndValidate(validToken);
+
+        assertThat(jwtUtils.parseAndValidate(validToken)).isSameAs(claims);
+    }
+
+    @Test
+    public void shouldNotTrustTokensVerifiedWithPreviousKey() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        String validToken = Jwts.builder()
+                .setSubject("cachedUser")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+        assertThat(jwtUtils.parseAndValidate(validToken)).isNotNull();
+
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "differentTestSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        assertThat(jwtUtils.parseAndValidate(validToken)).isNull();
+        assertThat(memoryAppender.contains("Invalid JWT signature:", Level.ERROR)).isTrue();
+    }
+
+    @Test
+    public void shouldRejectAlreadyVerifiedJwtTokenOnceExpired() throws InterruptedException {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        String shortLivedToken = Jwts.builder()
+                .setSubject("cachedUser")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 2000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+        assertThat(jwtUtils.parseAndValidate(shortLivedToken)).isNotNull();
+
+        Thread.sleep(2100);
+
+        assertThat(jwtUtils.parseAndValidate(shortLivedToken)).isNull();
+    }
+
+    @Test
+    public void shouldReturnNullClaimsWhenJwtTokenInvalid() {
+        assertThat(jwtUtils.parseAndValidate("yJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJicGF3YW4")).isNull();
+        assertThat(memoryAppender.contains("Invalid JWT token:", Level.ERROR)).isTrue();
+    }
+
     @Test
     public void shouldValidateGeneratedJwtToken() {
         UserDetailsImpl testUserDetails = UserDetailsImpl.builder()
@@ -135,6 +216,7 @@ public class JwtUtilsTest {
                 .compact();
 
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "differentTestSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 2000000);
         boolean result = jwtUtils.validateJwtToken(invalidSignatureToken);
 
@@ -162,6 +244,7 @@ public class JwtUtilsTest {
                 .compact();
 
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
         boolean result = jwtUtils.validateJwtToken(expiredToken);
 
         assertThat(result).isFalse();
@@ -175,6 +258,7 @@ public class JwtUtilsTest {
                 .compact();
 
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
         boolean result = jwtUtils.validateJwtToken(unsupportedToken);
 
         assertThat(result).isFalse();
@@ -185,6 +269,7 @@ public class JwtUtilsTest {
         String emptyToken = "";
 
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
         boolean result = jwtUtils.validateJwtToken(emptyToken);
 
         assertThat(result).isFalse();
@@ -0,0 +1,76 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:17:20
+ */
+
+@SpringBootTest
+@Tag("Integration")
+public class PrincipalCacheIT {
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final User user = new User()
+            .setId(1L)
+            .setEmail("test@example.com")
+            .setLastName("User")
+            .setFirstName("Test")
+            .setPassword("password")
+            .setAdmin(false);
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    public void shouldLoadPrincipalOnlyOnce() {
+        userDetailsService.loadUserByUsername("test@example.com");
+        UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername("test@example.com");
+
+        assertThat(userDetails.getId()).isEqualTo(1L);
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+    }
+
+    @Test
+    public void shouldLoadPrincipalAgainAfterUserDeletion() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        userDetailsService.loadUserByUsername("test@example.com");
+
+        userService.delete(1L);
+        userDetailsService.loadUserByUsername("test@example.com");
+
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -49,7 +50,8 @@ public class UserDetailsServiceImplTest {
         assertThat(userDetails.getFirstName()).isEqualTo("Test");
         assertThat(userDetails.getLastName()).isEqualTo("User");
         assertThat(userDetails.getPassword()).isEqualTo("password");
-        assertThat(userDetails.getAuthorities()).hasSize(0);
+        assertThat(userDetails.getAdmin()).isTrue();
+        assertThat(userDetails.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
         assertThat(userDetails.isAccountNonExpired()).isTrue();
         assertThat(userDetails.isEnabled()).isTrue();
         assertThat(userDetails.isAccountNonExpired()).isTrue();
@@ -63,4 +65,26 @@ public class UserDetailsServiceImplTest {
 
         assertThrows(UsernameNotFoundException.class, () -> userDetailsServiceImpl.loadUserByUsername("test@example.com"));
     }
+
+    @Test
+    public void shouldUpdatePassword() {
+        UserDetailsImpl user = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@example.com")
+                .lastName("User")
+                .firstName("Test")
+                .admin(true)
+                .password("$2a$04$oldHash")
+                .build();
+
+        when(userRepository.updatePassword("test@example.com", "{bcrypt}newHash")).thenReturn(1);
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsServiceImpl.updatePassword(user, "{bcrypt}newHash");
+
+        verify(userRepository).updatePassword("test@example.com", "{bcrypt}newHash");
+        assertThat(userDetails.getPassword()).isEqualTo("{bcrypt}newHash");
+        assertThat(userDetails.getId()).isEqualTo(1L);
+        assertThat(userDetails.getUsername()).isEqualTo("test@example.com");
+        assertThat(userDetails.getAdmin()).isTrue();
+    }
 }
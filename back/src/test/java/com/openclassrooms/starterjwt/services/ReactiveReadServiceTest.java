@@ -0,0 +1,95 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:22:10
+ */
+
+@ExtendWith(MockitoExtension.class)
+@Tag("ReactiveReadService")
+@DisplayName("Testing streamed reads")
+public class ReactiveReadServiceTest {
+
+    private ReactiveReadService reactiveReadService;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private TeacherService teacherService;
+
+    @BeforeEach
+    void setUp() {
+        reactiveReadService = new ReactiveReadService(sessionService, teacherService, Schedulers.immediate());
+    }
+
+    private static Session session(long id) {
+        return new Session().setId(id).setDate(new Date(id * 1000));
+    }
+
+    @Test
+    public void shouldReadNextPageOnlyWhenRequested() {
+        List<Session> firstPage = Arrays.asList(session(1), session(2));
+        List<Session> secondPage = Collections.singletonList(session(3));
+        when(sessionService.findPage(isNull(), isNull(), isNull(), isNull(), eq(2))).thenReturn(firstPage);
+        when(sessionService.findPage(eq(SessionCursor.of(session(2))), isNull(), isNull(), isNull(), eq(2))).thenReturn(secondPage);
+
+        StepVerifier.create(reactiveReadService.findSessionPages(null, null, null, 2), 0)
+                .then(() -> verifyNoInteractions(sessionService))
+                .thenRequest(1)
+                .expectNext(firstPage)
+                .then(() -> verify(sessionService, times(1)).findPage(any(), any(), any(), any(), anyInt()))
+                .thenRequest(1)
+                // a short page is the last one
+                .expectNext(secondPage)
+                .verifyComplete();
+
+        verify(sessionService, times(2)).findPage(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldStopOnEmptyPage() {
+        List<Session> fullPage = Arrays.asList(session(1), session(2));
+        when(sessionService.findPage(isNull(), eq(1L), isNull(), isNull(), eq(2))).thenReturn(fullPage);
+        when(sessionService.findPage(eq(SessionCursor.of(session(2))), eq(1L), isNull(), isNull(), eq(2))).thenReturn(Collections.emptyList());
+
+        StepVerifier.create(reactiveReadService.findSessionPages(1L, null, null, 2))
+                .expectNext(fullPage)
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldFindAllTeachers() {
+        List<Teacher> teachers = Arrays.asList(new Teacher(), new Teacher());
+        when(teacherService.findAll()).thenReturn(teachers);
+
+        StepVerifier.create(reactiveReadService.findAllTeachers())
+                .expectNext(teachers)
+                .verifyComplete();
+
+        verify(teacherService).findAll();
+    }
+}
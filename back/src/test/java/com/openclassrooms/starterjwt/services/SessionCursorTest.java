@@ -0,0 +1,50 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Wilhelm Zwertvaegher
+ * Date:18/10/2026
+ * Time:14:40
+ */
+
+@Tag("SessionService")
+@DisplayName("Testing session keyset cursor")
+public class SessionCursorTest {
+
+    @Test
+    public void shouldEncodeAndDecodeCursor() {
+        Session session = new Session().setId(12L).setDate(new Date(1700000000000L));
+
+        SessionCursor cursor = SessionCursor.decode(SessionCursor.of(session).encode());
+
+        assertThat(cursor.getId()).isEqualTo(12L);
+        assertThat(cursor.getDate()).isEqualTo(new Date(1700000000000L));
+    }
+
+    @Test
+    public void shouldThrowBadRequestExceptionWhenCursorIsNotBase64() {
+        assertThrows(BadRequestException.class, () -> SessionCursor.decode("not a cursor!"));
+    }
+
+    @Test
+    public void shouldThrowBadRequestExceptionWhenCursorIsMalformed() {
+        // "abc" base64url encoded
+        assertThrows(BadRequestException.class, () -> SessionCursor.decode("YWJj"));
+    }
+
+    @Test
+    public void shouldThrowBadRequestExceptionWhenCursorContainsNoNumbers() {
+        // "a:b" base64url encoded
+        assertThrows(BadRequestException.class, () -> SessionCursor.decode("YTpi"));
+    }
+}
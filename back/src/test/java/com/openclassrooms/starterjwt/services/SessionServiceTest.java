@@ -3,15 +3,26 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
+import com.openclassrooms.starterjwt.exception.StaleSessionException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionBookingRepository.Booking;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 
 import java.util.*;
 
@@ -19,6 +30,9 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,6 +57,12 @@ public class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Validator validator;
+
     @Nested
     class CreateSession {
         @Test
@@ -55,6 +75,24 @@ public class SessionServiceTest {
             verify(sessionRepository).save(session);
             assertThat(createdSession).isNotNull().isEqualTo(session);
         }
+
+        @Test
+        public void shouldCountParticipantsAsBookedSeats() {
+            Session session = new Session().setCapacity(2).setUsers(new HashSet<>(Arrays.asList(new User().setId(1L), new User().setId(2L))));
+            when(sessionRepository.save(any(Session.class))).thenReturn(session);
+
+            sessionService.create(session);
+
+            assertThat(session.getParticipantCount()).isEqualTo(2);
+        }
+
+        @Test
+        public void shouldThrowBadRequestExceptionIfParticipantsExceedCapacity() {
+            Session session = new Session().setCapacity(1).setUsers(new HashSet<>(Arrays.asList(new User().setId(1L), new User().setId(2L))));
+
+            assertThrows(BadRequestException.class, () -> sessionService.create(session));
+            verify(sessionRepository, never()).save(any(Session.class));
+        }
     }
 
     @Nested
@@ -70,6 +108,92 @@ public class SessionServiceTest {
             assertThat(allSessions).isNotNull().isEqualTo(sessions);
         }
 
+        @Test
+        public void shouldFindAllSessionSummaries() {
+            List<SessionSummary> summaries = Collections.emptyList();
+            when(sessionRepository.findAllSummaries()).thenReturn(summaries);
+
+            assertThat(sessionService.findAllSummaries()).isSameAs(summaries);
+        }
+
+        @Test
+        public void shouldFindFirstPageOfSessions() {
+            List<Session> sessions = Arrays.asList(new Session(), new Session());
+            Date from = new Date();
+            when(sessionRepository.findFirstPage(2L, from, null, PageRequest.of(0, 3))).thenReturn(sessions);
+
+            List<Session> page = sessionService.findPage(null, 2L, from, null, 3);
+
+            assertThat(page).isNotNull().isEqualTo(sessions);
+        }
+
+        @Test
+        public void shouldFindPageOfSessionsAfterCursor() {
+            List<Session> sessions = Arrays.asList(new Session(), new Session());
+            Date date = new Date();
+            when(sessionRepository.findPageAfter(date, 5L, null, null, null, PageRequest.of(0, 3))).thenReturn(sessions);
+
+            List<Session> page = sessionService.findPage(new SessionCursor(date, 5L), null, null, null, 3);
+
+            assertThat(page).isNotNull().isEqualTo(sessions);
+        }
+
+        @Test
+        public void shouldFindUpcomingSessionsOfParticipant() {
+            List<Session> sessions = Arrays.asList(new Session(), new Session());
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.findUpcomingByParticipant(eq(1L), any(Date.class), eq(PageRequest.of(0, 3)))).thenReturn(sessions);
+
+            List<Session> page = sessionService.findParticipantPage(1L, false, null, 3);
+
+            assertThat(page).isNotNull().isEqualTo(sessions);
+        }
+
+        @Test
+        public void shouldFindPastSessionsOfParticipantBeforeCursor() {
+            List<Session> sessions = Collections.singletonList(new Session());
+            Date date = new Date();
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.findPastByParticipantBefore(eq(1L), any(Date.class), eq(date), eq(5L), eq(PageRequest.of(0, 3)))).thenReturn(sessions);
+
+            List<Session> page = sessionService.findParticipantPage(1L, true, new SessionCursor(date, 5L), 3);
+
+            assertThat(page).isNotNull().isEqualTo(sessions);
+        }
+
+        @Test
+        public void shouldThrowNotFoundExceptionWhenFindingSessionsOfUnknownUser() {
+            when(userRepository.existsById(1L)).thenReturn(false);
+
+            assertThrows(NotFoundException.class, () -> sessionService.findParticipantPage(1L, false, null, 3));
+            verify(sessionRepository, never()).findUpcomingByParticipant(anyLong(), any(Date.class), any());
+        }
+
+        @Test
+        public void shouldFindParticipantIdsGroupedBySession() {
+            when(sessionRepository.findParticipantIds(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(
+                    participant(1L, 10L), participant(1L, 11L), participant(2L, 10L)));
+
+            Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(Arrays.asList(1L, 2L));
+
+            assertThat(participantIds.get(1L)).isEqualTo(Arrays.asList(10L, 11L));
+            assertThat(participantIds.get(2L)).isEqualTo(Collections.singletonList(10L));
+        }
+
+        private SessionParticipant participant(Long sessionId, Long userId) {
+            return new SessionParticipant() {
+                @Override
+                public Long getSessionId() {
+                    return sessionId;
+                }
+
+                @Override
+                public Long getUserId() {
+                    return userId;
+                }
+            };
+        }
+
         @Test
         public void shouldFindAnExistingSessionByItsId() {
             Session session = new Session();
@@ -98,12 +222,89 @@ public class SessionServiceTest {
         public void shouldUpdateSession() {
             Session session = new Session();
             session.setId(4L);
-            when(sessionRepository.save(any(Session.class))).thenReturn(session);
+            session.setUsers(new HashSet<>(Arrays.asList(new User().setId(1L), new User().setId(2L))));
+            Session updated = new Session().setId(1L).setVersion(3L);
+            when(sessionRepository.update(session, 2L)).thenReturn(true);
+            when(sessionRepository.findById(1L)).thenReturn(Optional.of(updated));
 
-            Session updatedSession = sessionService.update(1L, session);
+            Session updatedSession = sessionService.update(1L, session, 2L);
 
-            verify(sessionRepository).save(session);
-            assertThat(updatedSession).isNotNull().isEqualTo(session);
+            assertThat(session.getId()).isEqualTo(1L);
+            assertThat(session.getParticipantCount()).isEqualTo(2);
+            verify(sessionRepository, never()).save(any(Session.class));
+            assertThat(updatedSession).isNotNull().isSameAs(updated);
+        }
+
+        @Test
+        public void shouldThrowStaleSessionExceptionWhenVersionChanged() {
+            Session session = new Session();
+            when(sessionRepository.update(session, 2L)).thenReturn(false);
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+
+            assertThrows(StaleSessionException.class, () -> sessionService.update(1L, session, 2L));
+        }
+
+        @Test
+        public void shouldThrowNotFoundExceptionWhenUpdatingUnknownSession() {
+            Session session = new Session();
+            when(sessionRepository.update(session, null)).thenReturn(false);
+            when(sessionRepository.existsById(1L)).thenReturn(false);
+
+            assertThrows(NotFoundException.class, () -> sessionService.update(1L, session, null));
+        }
+    }
+
+    @Nested
+    class PatchSession {
+        @BeforeEach
+        void runInTransaction() {
+            when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<Session>>getArgument(0).doInTransaction(null));
+        }
+
+        @Test
+        public void shouldPatchSession() {
+            Session session = new Session().setId(1L).setName("Session").setVersion(2L);
+            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+
+            Session patchedSession = sessionService.patch(1L, s -> s.setName("Renamed"), 2L);
+
+            assertThat(patchedSession).isSameAs(session);
+            assertThat(patchedSession.getName()).isEqualTo("Renamed");
+            verify(sessionRepository, never()).save(any(Session.class));
+        }
+
+        @Test
+        public void shouldThrowNotFoundExceptionWhenPatchingUnknownSession() {
+            when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
+
+            assertThrows(NotFoundException.class, () -> sessionService.patch(1L, s -> s.setName("Renamed"), null));
+        }
+
+        @Test
+        public void shouldThrowStaleSessionExceptionWhenPatchingChangedSession() {
+            Session session = new Session().setId(1L).setName("Session").setVersion(3L);
+            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+
+            assertThrows(StaleSessionException.class, () -> sessionService.patch(1L, s -> s.setName("Renamed"), 2L));
+            assertThat(session.getName()).isEqualTo("Session");
+        }
+
+        @Test
+        public void shouldThrowBadRequestExceptionWhenCapacityBelowParticipants() {
+            Session session = new Session().setId(1L).setParticipantCount(3);
+            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+
+            assertThrows(BadRequestException.class, () -> sessionService.patch(1L, s -> s.setCapacity(2), null));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void shouldThrowBadRequestExceptionWhenPatchedSessionInvalid() {
+            Session session = new Session().setId(1L);
+            when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+            when(validator.validate(session)).thenReturn(Collections.singleton(mock(ConstraintViolation.class)));
+
+            assertThrows(BadRequestException.class, () -> sessionService.patch(1L, s -> s.setName(""), null));
         }
     }
 
@@ -111,8 +312,19 @@ public class SessionServiceTest {
     class DeleteSession {
         @Test
         public void shouldDeleteSession() {
+            when(sessionRepository.remove(1L)).thenReturn(true);
+
             sessionService.delete(1L);
-            verify(sessionRepository).deleteById(1L);
+
+            verify(sessionRepository).remove(1L);
+            verify(sessionRepository, never()).deleteById(anyLong());
+        }
+
+        @Test
+        public void shouldThrowNotFoundExceptionIfSessionAlreadyDeleted() {
+            when(sessionRepository.remove(1L)).thenReturn(false);
+
+            assertThrows(NotFoundException.class, () -> sessionService.delete(1L));
         }
     }
 
@@ -120,87 +332,84 @@ public class SessionServiceTest {
     class ParticipationSession {
         @Test
         public void shouldCreateParticipationSession() {
-            Session session = new Session();
-            session.setId(1L);
-            session.setUsers(new ArrayList<>());
-            User user = new User();
-            user.setId(1L);
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(userRepository.existsById(2L)).thenReturn(true);
+            when(sessionRepository.book(1L, 2L)).thenReturn(Booking.BOOKED);
 
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
-            when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-            when(sessionRepository.save(any(Session.class))).thenReturn(session);
+            sessionService.participate(1L, 2L);
 
-            sessionService.participate(1L, 1L);
-
-            verify(sessionRepository).save(session);
-            assertThat(session.getUsers()).isEqualTo(Collections.singletonList(user));
+            verify(sessionRepository).book(1L, 2L);
+            verify(sessionRepository, never()).save(any(Session.class));
         }
 
         @Test
         public void shouldThrowNotFoundExceptionIfSessionNotFound() {
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
-            when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+            when(sessionRepository.existsById(anyLong())).thenReturn(false);
 
             assertThrows(NotFoundException.class, () -> sessionService.participate(1L, 1L));
         }
 
         @Test
         public void shouldThrowNotFoundExceptionIfUserNotFound() {
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(new Session()));
-            when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+            when(sessionRepository.existsById(anyLong())).thenReturn(true);
+            when(userRepository.existsById(anyLong())).thenReturn(false);
 
             assertThrows(NotFoundException.class, () -> sessionService.participate(1L, 1L));
         }
 
         @Test
         public void shouldThrowBadRequestExceptionIfUserAlreadyParticipating() {
-            User user = new User();
-            user.setId(1L);
-            Session session = new Session();
-            session.setId(1L);
-            session.setUsers(Collections.singletonList(user));
-
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
-            when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+            when(sessionRepository.existsById(anyLong())).thenReturn(true);
+            when(userRepository.existsById(anyLong())).thenReturn(true);
+            when(sessionRepository.book(1L, 1L)).thenReturn(Booking.ALREADY_BOOKED);
 
             assertThrows(BadRequestException.class, () -> sessionService.participate(1L, 1L));
         }
+
+        @Test
+        public void shouldThrowSessionFullExceptionIfNoSeatLeft() {
+            when(sessionRepository.existsById(anyLong())).thenReturn(true);
+            when(userRepository.existsById(anyLong())).thenReturn(true);
+            when(sessionRepository.book(1L, 1L)).thenReturn(Booking.FULL);
+
+            assertThrows(SessionFullException.class, () -> sessionService.participate(1L, 1L));
+        }
+
+        @Test
+        public void shouldThrowNotFoundExceptionIfSessionDeletedBeforeBooking() {
+            when(sessionRepository.existsById(anyLong())).thenReturn(true);
+            when(userRepository.existsById(anyLong())).thenReturn(true);
+            when(sessionRepository.book(1L, 1L)).thenReturn(Booking.NO_SESSION);
+
+            assertThrows(NotFoundException.class, () -> sessionService.participate(1L, 1L));
+        }
     }
 
     @Nested
     class DeleteParticipationSession {
         @Test
         public void shouldDeleteParticipationSession() {
-            User user = new User();
-            user.setId(1L);
-            Session session = new Session();
-            session.setId(1L);
-            session.setUsers(Collections.singletonList(user));
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.cancel(1L, 2L)).thenReturn(true);
 
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
-            when(sessionRepository.save(any(Session.class))).thenReturn(session);
-
-            sessionService.noLongerParticipate(1L, 1L);
+            sessionService.noLongerParticipate(1L, 2L);
 
-            verify(sessionRepository).save(session);
-            assertThat(session.getUsers()).isEqualTo(new ArrayList<>());
+            verify(sessionRepository).cancel(1L, 2L);
+            verify(sessionRepository, never()).save(any(Session.class));
         }
 
         @Test
         public void shouldThrowNotFoundExceptionIfSessionNotFound() {
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
+            when(sessionRepository.existsById(anyLong())).thenReturn(false);
             assertThrows(NotFoundException.class, () -> sessionService.noLongerParticipate(1L, 1L));
         }
 
         @Test
         public void shouldBadRequestExceptionIfUserNotParticipating() {
-            Session session = new Session();
-            session.setId(1L);
-            session.setUsers(new ArrayList<>());
-
-            when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
+            when(sessionRepository.existsById(anyLong())).thenReturn(true);
+            when(sessionRepository.cancel(1L, 1L)).thenReturn(false);
 
             assertThrows(BadRequestException.class, () -> sessionService.noLongerParticipate(1L, 1L));
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.exception.UnknownUserException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import org.junit.jupiter.api.*;
@@ -7,11 +9,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 
 import java.util.*;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,6 +41,12 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
     @Test
     public void shouldFindAnExistingUserByItsId() {
         User user = new User();
@@ -55,8 +69,53 @@ public class UserServiceTest {
     }
 
     @Test
-    public void shouldDeleteUser() {
+    public void shouldFindAllUsersByIdInOneQuery() {
+        User user1 = new User().setId(1L);
+        User user2 = new User().setId(2L);
+        when(userRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(user2, user1));
+
+        List<User> foundUsers = userService.findAllById(Arrays.asList(1L, 2L, 1L));
+
+        verify(userRepository).findAllById(new LinkedHashSet<>(Arrays.asList(1L, 2L)));
+        assertThat(foundUsers).containsExactly(user1, user2);
+    }
+
+    @Test
+    public void shouldNotQueryWhenNoIdToFind() {
+        List<User> foundUsers = userService.findAllById(Collections.emptyList());
+
+        verify(userRepository, never()).findAllById(anyCollection());
+        assertThat(foundUsers).isEmpty();
+    }
+
+    @Test
+    public void shouldReportUnknownUserIds() {
+        when(userRepository.findAllById(anyCollection())).thenReturn(Collections.singletonList(new User().setId(1L)));
+
+        UnknownUserException exception = assertThrows(UnknownUserException.class, () -> userService.findAllById(Arrays.asList(1L, 2L, 3L)));
+
+        assertThat(exception.getUnknownIds()).containsExactly(2L, 3L);
+        assertThat(exception.getMessage()).isEqualTo("Unknown user(s): 2, 3");
+    }
+
+    @Test
+    public void shouldDeleteUserAndEvictItsPrincipal() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User().setId(1L).setEmail("test@example.com")));
+        when(cacheManager.getCache(CacheConfig.PRINCIPALS)).thenReturn(cache);
+
         userService.delete(1L);
+
+        verify(userRepository).deleteById(1L);
+        verify(cache).evict("test@example.com");
+    }
+
+    @Test
+    public void shouldNotEvictAnythingWhenDeletingUnknownUser() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        userService.delete(1L);
+
         verify(userRepository).deleteById(1L);
+        verify(cacheManager, never()).getCache(anyString());
     }
 }
\ No newline at end of file